@@ -0,0 +1,119 @@
+package com.example.benchmarks;
+
+import com.example.domain.employee.Employee;
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Employee commands on their way through RabbitMQ, one message per employee. In the legacy JSON
+ * format the payload is serialized with Jackson and then handed to {@code Jackson2JsonMessageConverter},
+ * which is what both services configure; the protobuf format sends {@code EmployeeProto.Employee}
+ * bytes as they are. The consumer benchmarks reverse the respective steps.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class AmqpCommandBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    // Spring Boot's defaults for the auto-configured ObjectMapper
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Jackson2JsonMessageConverter messageConverter = new Jackson2JsonMessageConverter();
+
+    private List<EmployeeRequestDTO> requests;
+    private List<Employee> employees;
+    private List<Message> messages;
+    private List<byte[]> protobufMessages;
+
+    @Setup
+    public void setUp() throws IOException {
+        requests = EmployeeFixtures.requests(size);
+        employees = EmployeeFixtures.employees(size);
+        messages = new ArrayList<>(size);
+        for (Employee employee : employees) {
+            messages.add(messageConverter.toMessage(objectMapper.writeValueAsBytes(employee), new MessageProperties()));
+        }
+        protobufMessages = new ArrayList<>(size);
+        for (EmployeeRequestDTO request : requests) {
+            protobufMessages.add(toProto(request).toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void writeRequestDtos(Blackhole blackhole) throws IOException {
+        for (EmployeeRequestDTO request : requests) {
+            blackhole.consume(objectMapper.writeValueAsBytes(request));
+        }
+    }
+
+    @Benchmark
+    public void writeEmployees(Blackhole blackhole) throws IOException {
+        for (Employee employee : employees) {
+            blackhole.consume(objectMapper.writeValueAsBytes(employee));
+        }
+    }
+
+    @Benchmark
+    public void publishRequestDtos(Blackhole blackhole) throws IOException {
+        for (EmployeeRequestDTO request : requests) {
+            blackhole.consume(messageConverter.toMessage(objectMapper.writeValueAsBytes(request), new MessageProperties()));
+        }
+    }
+
+    @Benchmark
+    public void publishProtobuf(Blackhole blackhole) {
+        for (EmployeeRequestDTO request : requests) {
+            blackhole.consume(toProto(request).toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void consumeProtobuf(Blackhole blackhole) throws IOException {
+        for (byte[] message : protobufMessages) {
+            EmployeeProto.Employee employee = EmployeeProto.Employee.parseFrom(message);
+            blackhole.consume(new Employee(UUID.fromString(employee.getId()), employee.getName(), employee.getPosition(),
+                    employee.getSalary(), Date.valueOf(employee.getHireDate())));
+        }
+    }
+
+    @Benchmark
+    public void consumeEmployees(Blackhole blackhole) throws IOException {
+        for (Message message : messages) {
+            byte[] payload = (byte[]) messageConverter.fromMessage(message);
+            blackhole.consume(objectMapper.readValue(payload, Employee.class));
+        }
+    }
+
+    private static EmployeeProto.Employee toProto(EmployeeRequestDTO request) {
+        return EmployeeProto.Employee.newBuilder()
+                .setId(request.getId())
+                .setName(request.getName())
+                .setPosition(request.getPosition())
+                .setSalary(request.getSalary())
+                .setHireDate(request.getHireDate())
+                .build();
+    }
+}
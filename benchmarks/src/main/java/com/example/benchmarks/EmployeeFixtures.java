@@ -0,0 +1,59 @@
+package com.example.benchmarks;
+
+import com.example.domain.employee.Employee;
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeProtoMapper;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic test data shaped like real rows: random UUIDs, short names, a handful of
+ * positions and hire dates spread over twenty years.
+ */
+final class EmployeeFixtures {
+
+    private static final String[] POSITIONS = {"Engineer", "Senior Engineer", "Manager", "Analyst", "Designer", "Director"};
+    private static final LocalDate FIRST_HIRE_DATE = LocalDate.of(2005, 1, 1);
+
+    private EmployeeFixtures() {
+    }
+
+    static List<Employee> employees(int size) {
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee(
+                    new UUID(random.nextLong(), random.nextLong()),
+                    "Employee " + i,
+                    POSITIONS[random.nextInt(POSITIONS.length)],
+                    Math.round(30_000 + random.nextDouble() * 170_000),
+                    Date.valueOf(FIRST_HIRE_DATE.plusDays(random.nextInt(20 * 365)))));
+        }
+        return employees;
+    }
+
+    static List<EmployeeProto.Employee> protos(int size) {
+        return employees(size).stream().map(EmployeeProtoMapper::toProto).toList();
+    }
+
+    static List<EmployeeResponseDTO> responses(int size) {
+        return protos(size).stream()
+                .map(employee -> new EmployeeResponseDTO(employee.getId(), employee.getName(), employee.getPosition(),
+                        employee.getSalary(), employee.getHireDate()))
+                .toList();
+    }
+
+    static List<EmployeeRequestDTO> requests(int size) {
+        return protos(size).stream()
+                .map(employee -> new EmployeeRequestDTO(employee.getId(), employee.getName(), employee.getPosition(),
+                        employee.getSalary(), employee.getHireDate()))
+                .toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.benchmarks;
+
+import com.example.domain.employee.Employee;
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeProtoMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Domain side of a list read: JPA entities to {@code EmployeeProto.Employee} builders
+ * ({@code EmployeeGrpcService}), and the wire encoding/decoding of the resulting response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GrpcMessageBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private List<Employee> employees;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(size);
+        encoded = buildListResponse().toByteArray();
+    }
+
+    @Benchmark
+    public EmployeeProto.EmployeeListResponse buildListResponse() {
+        EmployeeProto.EmployeeListResponse.Builder response = EmployeeProto.EmployeeListResponse.newBuilder();
+        for (Employee employee : employees) {
+            response.addEmployees(EmployeeProtoMapper.toProto(employee));
+        }
+        return response.build();
+    }
+
+    @Benchmark
+    public byte[] buildAndEncodeListResponse() {
+        return buildListResponse().toByteArray();
+    }
+
+    @Benchmark
+    public EmployeeProto.EmployeeListResponse decodeListResponse() throws InvalidProtocolBufferException {
+        return EmployeeProto.EmployeeListResponse.parseFrom(encoded);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.benchmarks;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.codec.EmployeeJson;
+import com.example.gateway.api.codec.EmployeeListBody;
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Gateway side of a list read, from the gRPC response to JSON bytes. {@code modelMapperAndDatabind}
+ * is the former path (ModelMapper to {@code EmployeeResponseDTO}, a {@code Map.of} envelope, Jackson
+ * databind); {@code employeeJson} is what {@code EmployeeJsonHttpMessageConverter} does now.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class JsonResponseBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<EmployeeProto.Employee> employees;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.protos(size);
+    }
+
+    @Benchmark
+    public List<EmployeeResponseDTO> modelMapper() {
+        return employees.stream()
+                .map(employee -> modelMapper.map(employee, EmployeeResponseDTO.class))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] modelMapperAndDatabind() throws IOException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "status", "success",
+                "employees", modelMapper()
+        ));
+    }
+
+    @Benchmark
+    public byte[] employeeJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            EmployeeJson.writeBody(generator, EmployeeListBody.of(employees));
+        }
+        return out.toByteArray();
+    }
+}
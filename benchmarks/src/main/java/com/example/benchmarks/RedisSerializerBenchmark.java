@@ -0,0 +1,121 @@
+package com.example.benchmarks;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.example.gateway.cache.ProtobufRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache values as the gateway's Redis caches store them: the {@code allEmployees} list as one value
+ * (value layout) and single employees, the bytes of the {@code employeeById} entries and of the
+ * per-employee fields of the hash layout. {@code ProtobufRedisSerializer} over the protobuf messages,
+ * which writes the same bytes as {@code toByteArray()}, is measured against the former
+ * {@code GenericJackson2JsonRedisSerializer} over the DTOs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class RedisSerializerBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int size;
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    private final ProtobufRedisSerializer<EmployeeProto.EmployeeListResponse> protobufListSerializer =
+            new ProtobufRedisSerializer<>(EmployeeProto.EmployeeListResponse.parser());
+    private final ProtobufRedisSerializer<EmployeeProto.Employee> protobufEntrySerializer =
+            new ProtobufRedisSerializer<>(EmployeeProto.Employee.parser());
+
+    private List<EmployeeResponseDTO> dtos;
+    private byte[] jsonList;
+    private List<byte[]> jsonEntries;
+
+    private EmployeeProto.EmployeeListResponse protos;
+    private byte[] protobufList;
+    private List<byte[]> protobufEntries;
+
+    @Setup
+    public void setUp() {
+        dtos = new ArrayList<>(EmployeeFixtures.responses(size));
+        jsonList = jsonSerializer.serialize(dtos);
+        jsonEntries = new ArrayList<>(size);
+        for (EmployeeResponseDTO employee : dtos) {
+            jsonEntries.add(jsonSerializer.serialize(employee));
+        }
+
+        protos = EmployeeProto.EmployeeListResponse.newBuilder().addAllEmployees(EmployeeFixtures.protos(size)).build();
+        protobufList = protobufListSerializer.serialize(protos);
+        protobufEntries = new ArrayList<>(size);
+        for (EmployeeProto.Employee employee : protos.getEmployeesList()) {
+            protobufEntries.add(protobufEntrySerializer.serialize(employee));
+        }
+    }
+
+    @Benchmark
+    public byte[] jsonSerializeList() {
+        return jsonSerializer.serialize(dtos);
+    }
+
+    @Benchmark
+    public Object jsonDeserializeList() {
+        return jsonSerializer.deserialize(jsonList);
+    }
+
+    @Benchmark
+    public int jsonSerializeEntries() {
+        int bytes = 0;
+        for (EmployeeResponseDTO employee : dtos) {
+            bytes += jsonSerializer.serialize(employee).length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int jsonDeserializeEntries() {
+        int count = 0;
+        for (byte[] entry : jsonEntries) {
+            if (jsonSerializer.deserialize(entry) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public byte[] protobufSerializeList() {
+        return protobufListSerializer.serialize(protos);
+    }
+
+    @Benchmark
+    public EmployeeProto.EmployeeListResponse protobufDeserializeList() {
+        return protobufListSerializer.deserialize(protobufList);
+    }
+
+    @Benchmark
+    public int protobufSerializeEntries() {
+        int bytes = 0;
+        for (EmployeeProto.Employee employee : protos.getEmployeesList()) {
+            bytes += protobufEntrySerializer.serialize(employee).length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public int protobufDeserializeEntries() {
+        int count = 0;
+        for (byte[] entry : protobufEntries) {
+            if (protobufEntrySerializer.deserialize(entry) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
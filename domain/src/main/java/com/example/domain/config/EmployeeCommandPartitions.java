@@ -0,0 +1,60 @@
+package com.example.domain.config;
+
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.example.domain.config.RabbitMQConfig.employeeChangedRoutingKeyPrefix;
+import static com.example.domain.config.RabbitMQConfig.employeeCommandQueuePrefix;
+import static com.example.domain.config.RabbitMQConfig.employeeCommandRoutingKeyPrefix;
+
+/**
+ * Maps an employee id to one of {@code employee.commands.partitions} command queues. Every
+ * command for an id lands on the same queue; the gateway uses the same function and must be
+ * configured with the same number of partitions. Change events about an employee are routed to
+ * the partition of the same number, so the gateway can apply them in parallel across partitions
+ * and in order for each employee.
+ */
+public class EmployeeCommandPartitions {
+
+    private final int count;
+
+    public EmployeeCommandPartitions(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("employee.commands.partitions must be greater than zero");
+        }
+        this.count = count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(String employeeId) {
+        return Math.floorMod(canonical(employeeId).hashCode(), count);
+    }
+
+    public String routingKey(String employeeId) {
+        return employeeCommandRoutingKeyPrefix + partitionOf(employeeId);
+    }
+
+    public String changedRoutingKey(String employeeId) {
+        return employeeChangedRoutingKeyPrefix + partitionOf(employeeId);
+    }
+
+    public static String queueName(int partition) {
+        return employeeCommandQueuePrefix + partition;
+    }
+
+    public static String routingKey(int partition) {
+        return employeeCommandRoutingKeyPrefix + partition;
+    }
+
+    // Upper-case or otherwise non-canonical spellings of a UUID must not end up on another partition
+    private static String canonical(String employeeId) {
+        try {
+            return UUID.fromString(employeeId.trim()).toString();
+        } catch (IllegalArgumentException e) {
+            return employeeId.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.domain.config;
+
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.Set;
+
+@Configuration
+public class GrpcServerConfig {
+
+    private static final Set<String> listMethods = Set.of(
+            EmployeeServiceGrpc.getListEmployeesMethod().getFullMethodName(),
+            EmployeeServiceGrpc.getListEmployeePageMethod().getFullMethodName(),
+            EmployeeServiceGrpc.getStreamEmployeesMethod().getFullMethodName(),
+            EmployeeServiceGrpc.getBatchGetEmployeesMethod().getFullMethodName());
+
+    /**
+     * With {@code spring.threads.virtual.enabled=true} every gRPC call runs on its own virtual
+     * thread instead of the default cached platform-thread pool, matching what Spring Boot
+     * already does for Tomcat and the RabbitMQ listener containers in that mode.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public GrpcServerConfigurer virtualThreadGrpcServerConfigurer() {
+        return serverBuilder -> serverBuilder.executor(new VirtualThreadTaskExecutor("grpc-vt-"));
+    }
+
+    /**
+     * Compresses the responses of the listing RPCs; single-employee replies are too small to
+     * benefit. gRPC falls back to identity for clients that do not advertise the codec.
+     */
+    @Bean
+    @GrpcGlobalServerInterceptor
+    @ConditionalOnExpression("!'${employee.grpc.compression:gzip}'.isBlank()")
+    public ServerInterceptor listResponseCompressionInterceptor(@Value("${employee.grpc.compression:gzip}") String compression) {
+        return new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers, ServerCallHandler<Q, R> next) {
+                if (listMethods.contains(call.getMethodDescriptor().getFullMethodName())) {
+                    call.setCompression(compression);
+                }
+                return next.startCall(call, headers);
+            }
+        };
+    }
+}
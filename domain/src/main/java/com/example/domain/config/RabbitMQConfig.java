@@ -1,14 +1,23 @@
 package com.example.domain.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
+    // Per-operation queues of the previous topology; still consumed so that messages sent before the switch are applied
     public static final String employeePostRequestQueueName = "employeePostRequestQueue";
     public static final String employeePutRequestQueueName = "employeePutRequestQueue";
     public static final String employeeDeleteRequestQueueName = "employeeDeleteRequestQueue";
@@ -19,11 +28,79 @@ public class RabbitMQConfig {
 
     public static final String directExchangeName = "employeeExchange";
 
+    // Partitioned command queues: employeeCommandQueue.<n>, bound with employee.command.<n>. The
+    // operation is carried in the message type (employee.post, employee.put or employee.delete)
+    public static final String employeeCommandQueuePrefix = "employeeCommandQueue.";
+    public static final String employeeCommandRoutingKeyPrefix = "employee.command.";
+
+    // Stamped on every command: when it was sent (epoch millis) and an id to follow it through the logs
+    public static final String publishedAtHeader = "x-published-at";
+    public static final String correlationIdHeader = "x-correlation-id";
+
+    // Commands encoded as EmployeeProto messages; anything else is the legacy JSON format
+    public static final String protobufContentType = "application/x-protobuf";
+
+    public static final String batchListenerContainerFactoryName = "batchListenerContainerFactory";
+
+    public static final String employeeEventExchangeName = "employeeEventExchange";
+    // Change events are partitioned like the commands: employee.changed.<n>
+    public static final String employeeChangedRoutingKeyPrefix = "employee.changed.";
+
+    @Value("${employee.listener.batch-size:100}")
+    private int listenerBatchSize;
+
+    @Value("${employee.listener.receive-timeout:200ms}")
+    private Duration listenerReceiveTimeout;
+
+    @Value("${employee.commands.partitions:8}")
+    private int commandPartitions;
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
     }
 
+    /**
+     * Delivers commands to listeners as lists of up to {@code employee.listener.batch-size}
+     * messages. A batch is closed early when no further message arrives within
+     * {@code employee.listener.receive-timeout}; the whole batch is acked once the listener returns.
+     */
+    @Bean(batchListenerContainerFactoryName)
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                              ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(listenerBatchSize);
+        factory.setPrefetchCount(Math.max(listenerBatchSize, 250));
+        factory.setReceiveTimeout(listenerReceiveTimeout.toMillis());
+        return factory;
+    }
+
+    @Bean
+    public EmployeeCommandPartitions employeeCommandPartitions() {
+        return new EmployeeCommandPartitions(commandPartitions);
+    }
+
+    /**
+     * One queue per partition. Single active consumer: however many domain instances subscribe,
+     * only one of them consumes a partition at a time, so commands for an employee are applied in
+     * the order they were sent. The others take over when it goes away.
+     */
+    @Bean
+    public Declarables employeeCommandQueues(EmployeeCommandPartitions partitions, DirectExchange directExchange) {
+        List<Declarable> declarables = new ArrayList<>(partitions.count() * 2);
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            Queue queue = QueueBuilder.durable(EmployeeCommandPartitions.queueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(directExchange).with(EmployeeCommandPartitions.routingKey(partition)));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public DirectExchange exchange() {
         return ExchangeBuilder.directExchange(directExchangeName)
@@ -31,6 +108,13 @@ public class RabbitMQConfig {
                 .build();
     }
 
+    @Bean
+    public TopicExchange employeeEventExchange() {
+        return ExchangeBuilder.topicExchange(employeeEventExchangeName)
+                .durable(true)
+                .build();
+    }
+
     @Bean
     public Queue employeePostRequestQueue() {
         return QueueBuilder.durable(employeePostRequestQueueName).build();
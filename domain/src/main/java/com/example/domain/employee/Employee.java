@@ -1,10 +1,14 @@
 package com.example.domain.employee;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.sql.Date;
 import java.util.UUID;
@@ -15,10 +19,13 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Employee {
+public class Employee implements Persistable<UUID> {
 
+    /**
+     * Ids are assigned by the producer of the command (gateway or gRPC service), so there is
+     * no generator; {@link #prePersist()} only covers callers that leave it empty.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
 
     @Column(name = "name")
@@ -33,4 +40,50 @@ public class Employee {
     @Column(name = "hire_date")
     private Date hireDate;
 
-}
\ No newline at end of file
+    /**
+     * Bumped by Hibernate on every update; the gateway derives ETags from it. The column default
+     * lets {@code ddl-auto=update} add it to a table that already has rows.
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
+
+    /**
+     * Lets {@code save()} issue a plain INSERT for a pre-assigned id instead of a merge,
+     * which would first SELECT the row to find out whether it exists.
+     */
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = false;
+
+    public Employee(UUID id, String name, String position, double salary, Date hireDate) {
+        this(id, name, position, salary, hireDate, 0L, false);
+    }
+
+    public Employee markNew() {
+        this.newEntity = true;
+        return this;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity || id == null;
+    }
+
+    @PrePersist
+    void prePersist() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published on {@code employeeEventExchange} once a change to an employee has been committed.
+ * {@code employee} carries the committed state for CREATED/UPDATED and is null for DELETED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    private String id;
+    private Operation operation;
+    private long version;
+    private EmployeeSnapshot employee;
+}
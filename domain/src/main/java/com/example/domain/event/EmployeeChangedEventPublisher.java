@@ -0,0 +1,38 @@
+package com.example.domain.event;
+
+import com.example.domain.config.EmployeeCommandPartitions;
+import com.example.domain.outbox.Outbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import static com.example.domain.config.RabbitMQConfig.employeeEventExchangeName;
+
+/**
+ * Writes employee change events to the outbox inside the transaction that made the change, so
+ * an event goes out if and only if the change commits, and publishing never holds up the writer.
+ * Events about one employee go out in version order, on the partition of the employee's commands.
+ */
+@Component
+@Slf4j
+public class EmployeeChangedEventPublisher {
+
+    private final Outbox outbox;
+    private final MessageConverter messageConverter;
+    private final EmployeeCommandPartitions partitions;
+
+    public EmployeeChangedEventPublisher(Outbox outbox, MessageConverter messageConverter, EmployeeCommandPartitions partitions) {
+        this.outbox = outbox;
+        this.messageConverter = messageConverter;
+        this.partitions = partitions;
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        outbox.enqueue(employeeEventExchangeName, partitions.changedRoutingKey(event.getId()), messageConverter.toMessage(event, new MessageProperties()),
+                event.getId(), event.getVersion());
+        log.debug("Queued {} event for Employee ID: {}", event.getOperation(), event.getId());
+    }
+}
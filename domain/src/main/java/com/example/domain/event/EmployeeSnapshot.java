@@ -0,0 +1,29 @@
+package com.example.domain.event;
+
+import com.example.domain.employee.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSnapshot {
+    private String id;
+    private String name;
+    private String position;
+    private double salary;
+    private String hireDate;
+
+    public static EmployeeSnapshot of(Employee employee) {
+        return EmployeeSnapshot.builder()
+                .id(employee.getId().toString())
+                .name(employee.getName())
+                .position(employee.getPosition())
+                .salary(employee.getSalary())
+                .hireDate(employee.getHireDate() != null ? employee.getHireDate().toString() : null)
+                .build();
+    }
+}
@@ -1,69 +1,103 @@
 package com.example.domain.grpc;
 
+import com.example.domain.config.EmployeeCommandPartitions;
 import com.example.domain.config.RabbitMQConfig;
 import com.example.domain.employee.Employee;
-import com.example.domain.employee.EmployeeRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.domain.outbox.Outbox;
+import com.example.domain.service.EmployeeService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static com.example.domain.grpc.EmployeeProtoMapper.toProto;
+import static com.example.domain.service.EmployeeCommandCodec.createMessage;
+import static com.example.domain.service.EmployeeCommandCodec.deleteMessage;
+import static com.example.domain.service.EmployeeCommandCodec.updateMessage;
+
 @Slf4j
 @GrpcService
 public class EmployeeGrpcService extends EmployeeServiceGrpc.EmployeeServiceImplBase {
 
-    private final EmployeeRepository employeeRepository;
-    private final RabbitTemplate rabbitTemplate;
-    private final ObjectMapper objectMapper;
+    private final EmployeeService employeeService;
+    private final Outbox outbox;
+    private final EmployeeCommandPartitions commandPartitions;
+
+    @Value("${employee.stream.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${employee.stream.max-page-size:1000}")
+    private int maxPageSize;
 
-    public EmployeeGrpcService(EmployeeRepository employeeRepository, RabbitTemplate rabbitTemplate, ObjectMapper objectMapper) {
-        this.employeeRepository = employeeRepository;
-        this.rabbitTemplate = rabbitTemplate;
-        this.objectMapper = objectMapper;
+    @Value("${employee.batch.max-ids:1000}")
+    private int maxBatchIds;
+
+    public EmployeeGrpcService(EmployeeService employeeService, Outbox outbox, EmployeeCommandPartitions commandPartitions) {
+        this.employeeService = employeeService;
+        this.outbox = outbox;
+        this.commandPartitions = commandPartitions;
     }
 
     @Override
     @Timed(value = "grpc.get_employee", description = "Time taken to get an employee by ID")
     public void getEmployee(EmployeeProto.EmployeeRequest request, StreamObserver<EmployeeProto.EmployeeResponse> responseObserver) {
         log.info("Received GET request for Employee ID: {}", request.getId());
-        Employee employee = employeeRepository.findById(UUID.fromString(request.getId()))
-                .orElseThrow(() -> new RuntimeException("Employee not found"));
-
-        EmployeeProto.Employee grpcEmployee = EmployeeProto.Employee.newBuilder()
-                .setId(employee.getId().toString())
-                .setName(employee.getName())
-                .setPosition(employee.getPosition())
-                .setSalary(employee.getSalary())
-                .setHireDate(employee.getHireDate().toString())
-                .build();
+        Employee employee = employeeService.getEmployeeById(UUID.fromString(request.getId()));
 
         EmployeeProto.EmployeeResponse response = EmployeeProto.EmployeeResponse.newBuilder()
-                .setEmployee(grpcEmployee)
+                .setEmployee(toProto(employee))
                 .build();
 
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
 
+    @Override
+    @Timed(value = "grpc.batch_get_employees", description = "Time taken to get a batch of employees by ID")
+    public void batchGetEmployees(EmployeeProto.BatchGetEmployeesRequest request, StreamObserver<EmployeeProto.BatchGetEmployeesResponse> responseObserver) {
+        log.info("Received BATCH GET request for {} employee IDs", request.getIdsCount());
+        if (request.getIdsCount() > maxBatchIds) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + maxBatchIds + " ids can be requested at once")
+                    .asRuntimeException());
+            return;
+        }
+
+        // Malformed ids cannot match any row; they are dropped like unknown ones instead of failing the batch
+        Set<UUID> ids = new HashSet<>(request.getIdsCount());
+        for (String id : request.getIdsList()) {
+            try {
+                ids.add(UUID.fromString(id));
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring malformed employee ID in batch: {}", id);
+            }
+        }
+
+        EmployeeProto.BatchGetEmployeesResponse.Builder response = EmployeeProto.BatchGetEmployeesResponse.newBuilder();
+        if (!ids.isEmpty()) {
+            employeeService.getEmployeesByIds(ids).forEach(employee -> response.addEmployees(toProto(employee)));
+        }
+
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
     @Override
     @Timed(value = "grpc.list_employees", description = "Time taken to list all employees")
     public void listEmployees(EmployeeProto.Empty request, StreamObserver<EmployeeProto.EmployeeListResponse> responseObserver) {
         log.info("Received LIST request for all employees");
 
-        List<EmployeeProto.Employee> grpcEmployees = employeeRepository.findAll().stream()
-                .map(employee -> EmployeeProto.Employee.newBuilder()
-                        .setId(employee.getId().toString())
-                        .setName(employee.getName())
-                        .setPosition(employee.getPosition())
-                        .setSalary(employee.getSalary())
-                        .setHireDate(employee.getHireDate().toString())
-                        .build())
+        List<EmployeeProto.Employee> grpcEmployees = employeeService.getAllEmployees().stream()
+                .map(EmployeeProtoMapper::toProto)
                 .collect(Collectors.toList());
 
         EmployeeProto.EmployeeListResponse response = EmployeeProto.EmployeeListResponse.newBuilder()
@@ -74,14 +108,47 @@ public class EmployeeGrpcService extends EmployeeServiceGrpc.EmployeeServiceImpl
         responseObserver.onCompleted();
     }
 
+    @Override
+    @Timed(value = "grpc.list_employee_page", description = "Time taken to list one page of employees")
+    public void listEmployeePage(EmployeeProto.EmployeePageRequest request, StreamObserver<EmployeeProto.EmployeePage> responseObserver) {
+        log.info("Received PAGE request for employees: pageSize={}, cursor={}", request.getPageSize(), request.getCursor());
+        UUID after;
+        try {
+            after = EmployeeCursor.decode(request.getCursor());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(readPage(after, resolvePageSize(request.getPageSize())));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void streamEmployees(EmployeeProto.EmployeePageRequest request, StreamObserver<EmployeeProto.EmployeePage> responseObserver) {
+        log.info("Received STREAM request for employees: pageSize={}, cursor={}", request.getPageSize(), request.getCursor());
+        UUID after;
+        try {
+            after = EmployeeCursor.decode(request.getCursor());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        ServerCallStreamObserver<EmployeeProto.EmployeePage> observer = (ServerCallStreamObserver<EmployeeProto.EmployeePage>) responseObserver;
+        PageStreamer streamer = new PageStreamer(observer, after, resolvePageSize(request.getPageSize()));
+        observer.setOnCancelHandler(() -> log.info("Employee stream cancelled by client"));
+        observer.setOnReadyHandler(streamer);
+    }
+
     @Override
     @Timed(value = "grpc.create_employee", description = "Time taken to create an employee")
     public void createEmployee(EmployeeProto.Employee request, StreamObserver<EmployeeProto.Empty> responseObserver) {
         try {
             log.info("Received CREATE request for Employee: {}", request);
-            Employee employee = new Employee(UUID.randomUUID(), request.getName(), request.getPosition(), request.getSalary(), java.sql.Date.valueOf(request.getHireDate()));
-            byte[] message = objectMapper.writeValueAsBytes(employee);
-            rabbitTemplate.convertAndSend(RabbitMQConfig.directExchangeName, RabbitMQConfig.employeePostRequestQueueRoutingKey, message);
+            validateHireDate(request);
+            EmployeeProto.Employee employee = request.toBuilder().setId(UUID.randomUUID().toString()).build();
+            outbox.enqueue(RabbitMQConfig.directExchangeName, commandPartitions.routingKey(employee.getId()), createMessage(employee));
 
             responseObserver.onNext(EmployeeProto.Empty.newBuilder().build());
             responseObserver.onCompleted();
@@ -96,9 +163,9 @@ public class EmployeeGrpcService extends EmployeeServiceGrpc.EmployeeServiceImpl
     public void updateEmployee(EmployeeProto.Employee request, StreamObserver<EmployeeProto.Empty> responseObserver) {
         try {
             log.info("Received UPDATE request for Employee: {}", request);
-            Employee employee = new Employee(UUID.fromString(request.getId()), request.getName(), request.getPosition(), request.getSalary(), java.sql.Date.valueOf(request.getHireDate()));
-            byte[] message = objectMapper.writeValueAsBytes(employee);
-            rabbitTemplate.convertAndSend(RabbitMQConfig.directExchangeName, RabbitMQConfig.employeePutRequestQueueRoutingKey, message);
+            UUID.fromString(request.getId());
+            validateHireDate(request);
+            outbox.enqueue(RabbitMQConfig.directExchangeName, commandPartitions.routingKey(request.getId()), updateMessage(request));
 
             responseObserver.onNext(EmployeeProto.Empty.newBuilder().build());
             responseObserver.onCompleted();
@@ -113,8 +180,7 @@ public class EmployeeGrpcService extends EmployeeServiceGrpc.EmployeeServiceImpl
     public void deleteEmployee(EmployeeProto.EmployeeRequest request, StreamObserver<EmployeeProto.Empty> responseObserver) {
         try {
             log.info("Received DELETE request for Employee ID: {}", request.getId());
-            byte[] message = request.getId().getBytes();
-            rabbitTemplate.convertAndSend(RabbitMQConfig.directExchangeName, RabbitMQConfig.employeeDeleteRequestQueueRoutingKey, message);
+            outbox.enqueue(RabbitMQConfig.directExchangeName, commandPartitions.routingKey(request.getId()), deleteMessage(request.getId()));
 
             responseObserver.onNext(EmployeeProto.Empty.newBuilder().build());
             responseObserver.onCompleted();
@@ -123,4 +189,77 @@ public class EmployeeGrpcService extends EmployeeServiceGrpc.EmployeeServiceImpl
             responseObserver.onError(e);
         }
     }
+
+    // The command is forwarded as is, so reject what the listener would not be able to read
+    private static void validateHireDate(EmployeeProto.Employee request) {
+        java.sql.Date.valueOf(request.getHireDate());
+    }
+
+    /**
+     * Reads a single keyset page; {@code nextCursor} is only set when the page is full,
+     * i.e. when there may be more rows after it.
+     */
+    private EmployeeProto.EmployeePage readPage(UUID after, int pageSize) {
+        EmployeeProto.EmployeePage.Builder page = EmployeeProto.EmployeePage.newBuilder();
+        employeeService.forEachEmployeeAfter(after, pageSize, employee -> page.addEmployees(toProto(employee)));
+
+        int count = page.getEmployeesCount();
+        if (count == pageSize) {
+            page.setNextCursor(EmployeeCursor.encode(UUID.fromString(page.getEmployees(count - 1).getId())));
+        }
+        return page.build();
+    }
+
+    private int resolvePageSize(int requested) {
+        if (requested <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    /**
+     * Pushes keyset pages while the transport is ready and parks when the client
+     * falls behind; gRPC re-invokes it once the outbound buffer drains, so at most
+     * one page is held in memory per call.
+     */
+    private final class PageStreamer implements Runnable {
+
+        private final ServerCallStreamObserver<EmployeeProto.EmployeePage> observer;
+        private final int pageSize;
+        private UUID after;
+        private boolean completed;
+        private boolean closed;
+
+        private PageStreamer(ServerCallStreamObserver<EmployeeProto.EmployeePage> observer, UUID after, int pageSize) {
+            this.observer = observer;
+            this.after = after;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public void run() {
+            if (closed) {
+                return;
+            }
+            try {
+                while (!completed && !observer.isCancelled() && observer.isReady()) {
+                    EmployeeProto.EmployeePage page = readPage(after, pageSize);
+                    int count = page.getEmployeesCount();
+                    if (count > 0) {
+                        after = UUID.fromString(page.getEmployees(count - 1).getId());
+                        observer.onNext(page);
+                    }
+                    completed = page.getNextCursor().isEmpty();
+                }
+                if (completed && !observer.isCancelled()) {
+                    closed = true;
+                    observer.onCompleted();
+                }
+            } catch (Exception e) {
+                log.error("Error while streaming employees after ID {}", after, e);
+                closed = true;
+                observer.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+            }
+        }
+    }
 }
\ No newline at end of file
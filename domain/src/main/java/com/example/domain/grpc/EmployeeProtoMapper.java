@@ -0,0 +1,29 @@
+package com.example.domain.grpc;
+
+import com.example.domain.employee.Employee;
+
+public final class EmployeeProtoMapper {
+
+    private EmployeeProtoMapper() {
+    }
+
+    /**
+     * Null columns are left unset, so that clients can tell them apart from empty strings.
+     */
+    public static EmployeeProto.Employee toProto(Employee employee) {
+        EmployeeProto.Employee.Builder proto = EmployeeProto.Employee.newBuilder()
+                .setId(employee.getId().toString())
+                .setSalary(employee.getSalary())
+                .setVersion(employee.getVersion());
+        if (employee.getName() != null) {
+            proto.setName(employee.getName());
+        }
+        if (employee.getPosition() != null) {
+            proto.setPosition(employee.getPosition());
+        }
+        if (employee.getHireDate() != null) {
+            proto.setHireDate(employee.getHireDate().toString());
+        }
+        return proto.build();
+    }
+}
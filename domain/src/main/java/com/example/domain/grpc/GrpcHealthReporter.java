@@ -0,0 +1,46 @@
+package com.example.domain.grpc;
+
+import io.grpc.health.v1.HealthCheckResponse.ServingStatus;
+import io.grpc.protobuf.services.HealthStatusManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drives the standard gRPC health service (registered by the starter) from the application's
+ * readiness. The gateway's load balancer health-checks every replica, so a replica only gets
+ * calls once it is ready and stops getting them as soon as it starts shutting down.
+ */
+@Slf4j
+@Component
+public class GrpcHealthReporter {
+
+    private final HealthStatusManager healthStatusManager;
+
+    public GrpcHealthReporter(HealthStatusManager healthStatusManager) {
+        this.healthStatusManager = healthStatusManager;
+        // The gRPC server is started before the application is ready
+        setStatus(ServingStatus.NOT_SERVING);
+    }
+
+    @EventListener
+    public void onReadinessChanged(AvailabilityChangeEvent<ReadinessState> event) {
+        setStatus(event.getState() == ReadinessState.ACCEPTING_TRAFFIC ? ServingStatus.SERVING : ServingStatus.NOT_SERVING);
+    }
+
+    // Published before the gRPC server is stopped, so clients move away while calls in flight complete
+    @EventListener
+    public void onContextClosed(ContextClosedEvent event) {
+        log.info("Reporting NOT_SERVING to gRPC health checks");
+        healthStatusManager.enterTerminalState();
+    }
+
+    private void setStatus(ServingStatus status) {
+        log.info("gRPC health status: {}", status);
+        healthStatusManager.setStatus(HealthStatusManager.SERVICE_NAME_ALL_SERVICES, status);
+        healthStatusManager.setStatus(EmployeeServiceGrpc.SERVICE_NAME, status);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Queues AMQP messages in the {@code outbox_messages} table instead of sending them. Called
+ * inside a transaction, the message is stored with the change it announces and only goes out if
+ * that commits; the caller never waits for the broker. {@link OutboxRelay} publishes it and is
+ * woken up once the transaction has committed.
+ */
+@Component
+public class Outbox {
+
+    private final OutboxRepository repository;
+    private final OutboxRelay relay;
+    private final ObjectMapper objectMapper;
+
+    public Outbox(OutboxRepository repository, OutboxRelay relay, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.relay = relay;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional
+    public void enqueue(String exchange, String routingKey, Message message) {
+        enqueue(exchange, routingKey, message, null, null);
+    }
+
+    /**
+     * For a message about one version of an aggregate: it is never published before a message
+     * about an older version of the same aggregate, whatever order their transactions inserted
+     * them in.
+     */
+    @Transactional
+    public void enqueue(String exchange, String routingKey, Message message, String aggregateId, Long aggregateVersion) {
+        OutboxMessage outboxMessage = OutboxMessage.of(exchange, routingKey, message, objectMapper);
+        outboxMessage.setAggregateId(aggregateId);
+        outboxMessage.setAggregateVersion(aggregateVersion);
+        repository.save(outboxMessage);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    relay.wakeUp();
+                }
+            });
+        }
+    }
+}
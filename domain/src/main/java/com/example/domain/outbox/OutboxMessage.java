@@ -0,0 +1,131 @@
+package com.example.domain.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * An AMQP message waiting to be published by {@link OutboxRelay}. Rows are relayed in the order
+ * they were inserted: {@code created_at} is set by the database with {@code clock_timestamp()},
+ * since ids come from pooled sequence blocks and are only ordered within one instance.
+ * <p>
+ * Insertion order is not commit order, though: a transaction can insert its event before it
+ * waits for the row lock of another one changing the same employee. Messages about an aggregate
+ * therefore carry its id and version, and a message waits for any message about an older version
+ * of the same aggregate (see {@link OutboxRepository#findOldest}).
+ * <p>
+ * A message that keeps failing on its own is dead-lettered: it stays in the table with
+ * {@code dead_lettered_at} and {@code last_error} set and is no longer relayed.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "outbox_messages_created_at_idx", columnList = "created_at, id"),
+        @Index(name = "outbox_messages_aggregate_idx", columnList = "aggregate_id, aggregate_version")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    private static final TypeReference<Map<String, Object>> HEADERS_TYPE = new TypeReference<>() {
+    };
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_messages_seq")
+    @SequenceGenerator(name = "outbox_messages_seq", sequenceName = "outbox_messages_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "exchange", nullable = false)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "message_type")
+    private String messageType;
+
+    /**
+     * Remaining AMQP headers as a JSON object, or null if there are none.
+     */
+    @Column(name = "headers", columnDefinition = "text")
+    private String headers;
+
+    @Column(name = "body", nullable = false, columnDefinition = "bytea")
+    @ToString.Exclude
+    private byte[] body;
+
+    @Column(name = "created_at", insertable = false, updatable = false, columnDefinition = "timestamp default clock_timestamp() not null")
+    private Timestamp createdAt;
+
+    @Column(name = "aggregate_id", length = 36)
+    private String aggregateId;
+
+    @Column(name = "aggregate_version")
+    private Long aggregateVersion;
+
+    @Column(name = "attempts", insertable = false, updatable = false, columnDefinition = "integer default 0 not null")
+    private int attempts;
+
+    @Column(name = "last_error", insertable = false, updatable = false, columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "dead_lettered_at", insertable = false, updatable = false)
+    private Timestamp deadLetteredAt;
+
+    public static OutboxMessage of(String exchange, String routingKey, Message message, ObjectMapper objectMapper) {
+        MessageProperties properties = message.getMessageProperties();
+        String headers = null;
+        if (!properties.getHeaders().isEmpty()) {
+            try {
+                headers = objectMapper.writeValueAsString(properties.getHeaders());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("AMQP headers must be JSON-serializable", e);
+            }
+        }
+        return OutboxMessage.builder()
+                .exchange(exchange)
+                .routingKey(routingKey)
+                .contentType(properties.getContentType())
+                .messageType(properties.getType())
+                .headers(headers)
+                .body(message.getBody())
+                .build();
+    }
+
+    public Message toMessage(ObjectMapper objectMapper) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setType(messageType);
+        properties.setContentLength(body.length);
+        if (headers != null) {
+            try {
+                objectMapper.readValue(headers, HEADERS_TYPE).forEach(properties::setHeader);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable headers in outbox message " + id, e);
+            }
+        }
+        return new Message(body, properties);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the outbox in insertion order, {@code employee.outbox.batch-size} rows per round
+ * trip: the batch is read in a short transaction, sent on one channel and confirmed with a single
+ * wait for publisher confirms, and then deleted in a second short transaction, so no transaction
+ * or connection is held while the broker confirms. If the broker does not confirm, the batch stays
+ * and is sent again, in the same order (at-least-once). A lease in {@code outbox_relay_lease}
+ * lets one domain instance relay at a time.
+ * <p>
+ * A batch that fails other than by losing the broker is retried one message at a time for the
+ * next {@code batch-size} messages, so a message the broker refuses is found and does not hold
+ * the others back for good: each failure is counted on the message, and after
+ * {@code employee.outbox.max-attempts} it is dead-lettered. A message that cannot even be turned
+ * back into an AMQP message is dead-lettered right away.
+ * <p>
+ * The relay thread runs as soon as a transaction that wrote to the outbox commits, and otherwise
+ * every {@code employee.outbox.poll-interval} for rows written by other instances.
+ */
+@Component
+@Slf4j
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final int RELAY_LEASE_ID = 1;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxRepository repository;
+    private final OutboxRelayLeaseRepository leaseRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Semaphore wakeUps = new Semaphore(0);
+    private final Counter published;
+    private final Counter deadLettered;
+    private final Timer batchTimer;
+
+    @Value("${employee.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employee.outbox.poll-interval:200ms}")
+    private Duration pollInterval;
+
+    @Value("${employee.outbox.confirm-timeout:10s}")
+    private Duration confirmTimeout;
+
+    @Value("${employee.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    private volatile boolean running;
+    private Thread thread;
+    // Relay thread only: messages left to send one at a time after a failed batch
+    private int isolating;
+
+    public OutboxRelay(OutboxRepository repository, OutboxRelayLeaseRepository leaseRepository, RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.leaseRepository = leaseRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("employee.outbox.published")
+                .description("Outbox messages published and confirmed by the broker")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("employee.outbox.dead_lettered")
+                .description("Outbox messages given up on and left in the table with dead_lettered_at set")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("employee.outbox.batch")
+                .description("Time to publish and confirm one outbox batch")
+                .register(meterRegistry);
+    }
+
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("outbox-relay").daemon().start(this::relayLoop);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(confirmTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> leaseRepository.release(RELAY_LEASE_ID, instanceId));
+        } catch (Exception e) {
+            log.warn("Could not hand back the outbox relay lease, it expires on its own", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                if (!relayBatch()) {
+                    wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Relaying the outbox failed, retrying in {}", pollInterval, e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the batch was full, so more messages may be waiting
+     */
+    private boolean relayBatch() {
+        int limit = isolating > 0 ? 1 : batchSize;
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> holdsLease() ? repository.findOldest(limit) : List.of());
+        if (batch == null || batch.isEmpty()) {
+            return false;
+        }
+
+        List<OutboxMessage> sendable = new ArrayList<>(batch.size());
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            try {
+                messages.add(message.toMessage(objectMapper));
+                sendable.add(message);
+            } catch (RuntimeException e) {
+                recordFailure(message, e, 1);
+            }
+        }
+
+        if (sendable.isEmpty()) {
+            return true;
+        }
+
+        try {
+            batchTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                for (int i = 0; i < sendable.size(); i++) {
+                    operations.send(sendable.get(i).getExchange(), sendable.get(i).getRoutingKey(), messages.get(i));
+                }
+                operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+                return null;
+            }));
+        } catch (AmqpConnectException | AmqpTimeoutException e) {
+            // The broker is unreachable or slow, not refusing a message; send the batch again as it is
+            throw e;
+        } catch (AmqpException e) {
+            if (sendable.size() == 1) {
+                recordFailure(sendable.get(0), e, maxAttempts);
+            } else {
+                isolating = batchSize;
+                log.warn("Publishing an outbox batch of {} failed, sending the next {} messages one at a time", sendable.size(), batchSize);
+            }
+            throw e;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                repository.deleteAllByIdInBatch(sendable.stream().map(OutboxMessage::getId).toList()));
+        isolating = Math.max(0, isolating - batch.size());
+        published.increment(sendable.size());
+        log.debug("Relayed {} outbox messages", sendable.size());
+        return batch.size() == limit;
+    }
+
+    /**
+     * Long enough for a batch to be read, published and confirmed; renewed every round.
+     */
+    private boolean holdsLease() {
+        double seconds = Math.max(30, 3 * confirmTimeout.toMillis() / 1000.0);
+        return leaseRepository.tryAcquire(RELAY_LEASE_ID, instanceId, seconds) == 1;
+    }
+
+    private void recordFailure(OutboxMessage message, Exception e, int attemptsAllowed) {
+        String error = String.valueOf(e);
+        transactionTemplate.executeWithoutResult(status -> repository.recordFailure(message.getId(),
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, attemptsAllowed));
+        if (message.getAttempts() + 1 >= attemptsAllowed) {
+            deadLettered.increment();
+            log.error("Dead-lettered outbox message {} to {}/{} after {} attempts", message.getId(), message.getExchange(),
+                    message.getRoutingKey(), message.getAttempts() + 1, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.domain.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * The one row saying which domain instance relays the outbox, and until when. Held as a lease
+ * rather than a lock so that no transaction stays open while the relay waits for the broker.
+ */
+@Entity
+@Table(name = "outbox_relay_lease")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRelayLease {
+
+    @Id
+    private Integer id;
+
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private Timestamp expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.example.domain.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxRelayLeaseRepository extends JpaRepository<OutboxRelayLease, Integer> {
+
+    /**
+     * Takes the lease if it is free or expired, or extends it if {@code owner} already holds it.
+     *
+     * @return 1 if {@code owner} holds the lease for the next {@code seconds}, otherwise 0
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO outbox_relay_lease (id, owner, expires_at)
+            VALUES (:id, :owner, clock_timestamp() + make_interval(secs => :seconds))
+            ON CONFLICT (id) DO UPDATE SET owner = excluded.owner, expires_at = excluded.expires_at
+            WHERE outbox_relay_lease.owner = excluded.owner OR outbox_relay_lease.expires_at < clock_timestamp()
+            """, nativeQuery = true)
+    int tryAcquire(@Param("id") int id, @Param("owner") String owner, @Param("seconds") double seconds);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_relay_lease SET expires_at = clock_timestamp() WHERE id = :id AND owner = :owner", nativeQuery = true)
+    int release(@Param("id") int id, @Param("owner") String owner);
+}
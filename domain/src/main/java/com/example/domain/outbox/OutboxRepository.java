@@ -0,0 +1,46 @@
+package com.example.domain.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * The oldest messages that are not dead-lettered, leaving out any message about an aggregate
+     * with a message about an older version that was inserted after it: that one goes first, and
+     * this one in a later batch.
+     */
+    @Query(value = """
+            SELECT * FROM outbox_messages m
+            WHERE m.dead_lettered_at IS NULL
+              AND NOT EXISTS (
+                SELECT 1 FROM outbox_messages older
+                WHERE older.aggregate_id = m.aggregate_id
+                  AND older.aggregate_version < m.aggregate_version
+                  AND older.dead_lettered_at IS NULL
+                  AND (older.created_at, older.id) > (m.created_at, m.id))
+            ORDER BY m.created_at, m.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<OutboxMessage> findOldest(@Param("limit") int limit);
+
+    /**
+     * Counts a failed attempt to publish the message on its own, dead-lettering it on the
+     * {@code maxAttempts}th.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE outbox_messages
+            SET attempts = attempts + 1,
+                last_error = :error,
+                dead_lettered_at = CASE WHEN attempts + 1 >= :maxAttempts THEN clock_timestamp() END
+            WHERE id = :id
+            """, nativeQuery = true)
+    int recordFailure(@Param("id") long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts);
+}
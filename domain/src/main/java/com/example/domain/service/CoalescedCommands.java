@@ -0,0 +1,104 @@
+package com.example.domain.service;
+
+import com.example.domain.employee.Employee;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The commands of one consumed batch, folded into at most one pending write per employee:
+ * <ul>
+ *     <li>a later create or update replaces the pending one (last writer wins); an update of a
+ *     pending create stays a create, with the new values;</li>
+ *     <li>a delete supersedes a pending create or update, and updates after a delete are
+ *     dropped since they would not find the row anyway.</li>
+ * </ul>
+ * A create after a pending update or delete cannot be folded; {@link #add} rejects it so that
+ * the caller writes what is pending first.
+ */
+final class CoalescedCommands {
+
+    enum Operation {
+        CREATE, UPDATE, DELETE
+    }
+
+    private record Pending(Operation operation, Employee employee) {
+    }
+
+    private final Map<UUID, Pending> pending = new LinkedHashMap<>();
+    private int superseded;
+
+    /**
+     * @param employee the new values; {@code null} for deletes
+     * @return false if the command has to wait until the pending commands are written
+     */
+    boolean add(Operation operation, UUID id, Employee employee) {
+        Pending previous = pending.get(id);
+        if (previous == null) {
+            pending.put(id, new Pending(operation, employee));
+            return true;
+        }
+        Operation folded = fold(previous.operation(), operation);
+        if (folded == null) {
+            return false;
+        }
+        if (previous.operation() != Operation.DELETE) {
+            pending.put(id, new Pending(folded, employee));
+        }
+        superseded++;
+        return true;
+    }
+
+    boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Commands that were folded into another command for the same employee.
+     */
+    int superseded() {
+        return superseded;
+    }
+
+    List<Employee> creates() {
+        return employees(Operation.CREATE);
+    }
+
+    List<Employee> updates() {
+        return employees(Operation.UPDATE);
+    }
+
+    List<UUID> deletes() {
+        List<UUID> ids = new ArrayList<>();
+        pending.forEach((id, command) -> {
+            if (command.operation() == Operation.DELETE) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private List<Employee> employees(Operation operation) {
+        List<Employee> employees = new ArrayList<>();
+        for (Pending command : pending.values()) {
+            if (command.operation() == operation) {
+                employees.add(command.employee());
+            }
+        }
+        return employees;
+    }
+
+    private static Operation fold(Operation previous, Operation next) {
+        if (next == Operation.DELETE) {
+            return Operation.DELETE;
+        }
+        return switch (previous) {
+            case CREATE -> Operation.CREATE;
+            case UPDATE -> next == Operation.UPDATE ? Operation.UPDATE : null;
+            case DELETE -> next == Operation.UPDATE ? Operation.DELETE : null;
+        };
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.domain.service;
+
+import com.example.domain.employee.Employee;
+import com.example.domain.grpc.EmployeeProto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.UUID;
+
+import static com.example.domain.config.RabbitMQConfig.correlationIdHeader;
+import static com.example.domain.config.RabbitMQConfig.employeeDeleteRequestQueueRoutingKey;
+import static com.example.domain.config.RabbitMQConfig.employeePostRequestQueueRoutingKey;
+import static com.example.domain.config.RabbitMQConfig.employeePutRequestQueueRoutingKey;
+import static com.example.domain.config.RabbitMQConfig.protobufContentType;
+import static com.example.domain.config.RabbitMQConfig.publishedAtHeader;
+
+/**
+ * Reads and writes the employee commands exchanged over RabbitMQ. Commands are written as
+ * protobuf ({@link EmployeeProto.Employee} for POST/PUT, {@link EmployeeProto.EmployeeRequest}
+ * for DELETE). Until every producer has switched, messages without the protobuf content type
+ * are still read in the legacy JSON format.
+ */
+@Component
+public class EmployeeCommandCodec {
+
+    private final MessageConverter messageConverter;
+    private final ObjectMapper objectMapper;
+    private final Counter protobufCommands;
+    private final Counter jsonCommands;
+
+    public EmployeeCommandCodec(MessageConverter messageConverter, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.messageConverter = messageConverter;
+        this.objectMapper = objectMapper;
+        this.protobufCommands = Counter.builder("employee.commands.received")
+                .description("Employee commands consumed, by payload format")
+                .tag("format", "protobuf")
+                .register(meterRegistry);
+        this.jsonCommands = Counter.builder("employee.commands.received")
+                .description("Employee commands consumed, by payload format")
+                .tag("format", "json")
+                .register(meterRegistry);
+    }
+
+    public static Message createMessage(EmployeeProto.Employee employee) {
+        return protobufMessage(employeePostRequestQueueRoutingKey, employee.toByteArray());
+    }
+
+    public static Message updateMessage(EmployeeProto.Employee employee) {
+        return protobufMessage(employeePutRequestQueueRoutingKey, employee.toByteArray());
+    }
+
+    public static Message deleteMessage(String id) {
+        return protobufMessage(employeeDeleteRequestQueueRoutingKey, EmployeeProto.EmployeeRequest.newBuilder().setId(id).build().toByteArray());
+    }
+
+    /**
+     * The operation of a message on a partitioned queue: {@code employee.post}, {@code employee.put}
+     * or {@code employee.delete}, the routing keys of the former per-operation queues.
+     */
+    public static String commandType(Message message) {
+        return message.getMessageProperties().getType();
+    }
+
+    public Employee readEmployee(Message message) throws IOException {
+        if (isProtobuf(message)) {
+            protobufCommands.increment();
+            return toEntity(EmployeeProto.Employee.parseFrom(message.getBody()));
+        }
+        jsonCommands.increment();
+        return objectMapper.readValue(legacyPayload(message), Employee.class);
+    }
+
+    public UUID readId(Message message) throws IOException {
+        if (isProtobuf(message)) {
+            protobufCommands.increment();
+            return UUID.fromString(EmployeeProto.EmployeeRequest.parseFrom(message.getBody()).getId());
+        }
+        jsonCommands.increment();
+        return UUID.fromString(new String(legacyPayload(message), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * For logging: the payload as text, or its size for binary messages.
+     */
+    public static String describe(Message message) {
+        return isProtobuf(message)
+                ? "protobuf payload of " + message.getBody().length + " bytes"
+                : new String(message.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static Employee toEntity(EmployeeProto.Employee employee) {
+        return new Employee(
+                UUID.fromString(employee.getId()),
+                employee.hasName() ? employee.getName() : null,
+                employee.hasPosition() ? employee.getPosition() : null,
+                employee.getSalary(),
+                !employee.hasHireDate() || employee.getHireDate().isEmpty() ? null : Date.valueOf(employee.getHireDate()));
+    }
+
+    // Legacy producers publish the JSON bytes as a byte[] through Jackson2JsonMessageConverter
+    private byte[] legacyPayload(Message message) {
+        Object payload = messageConverter.fromMessage(message);
+        return payload instanceof byte[] bytes ? bytes : String.valueOf(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isProtobuf(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        return contentType != null && contentType.startsWith(protobufContentType);
+    }
+
+    /**
+     * Properties of a new command: its type, the time it is sent and a fresh correlation id.
+     */
+    public static MessageProperties commandProperties(String commandType) {
+        MessageProperties properties = new MessageProperties();
+        properties.setType(commandType);
+        properties.setHeader(publishedAtHeader, System.currentTimeMillis());
+        properties.setHeader(correlationIdHeader, UUID.randomUUID().toString());
+        return properties;
+    }
+
+    /**
+     * @return when the command was sent (epoch millis), or null for messages of older producers
+     */
+    public static Long publishedAt(Message message) {
+        return message.getMessageProperties().getHeader(publishedAtHeader) instanceof Number publishedAt
+                ? publishedAt.longValue()
+                : null;
+    }
+
+    public static String correlationId(Message message) {
+        Object correlationId = message.getMessageProperties().getHeader(correlationIdHeader);
+        return correlationId != null ? correlationId.toString() : null;
+    }
+
+    private static Message protobufMessage(String commandType, byte[] body) {
+        MessageProperties properties = commandProperties(commandType);
+        properties.setContentType(protobufContentType);
+        properties.setContentLength(body.length);
+        return new Message(body, properties);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.domain.service;
+
+import com.example.domain.config.EmployeeCommandPartitions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Write-path metrics of the command listeners, tagged with {@code operation=create|update|delete}:
+ * <ul>
+ *     <li>{@code employee.commands.dwell} - from publish to consumption;</li>
+ *     <li>{@code employee.commands.processing} - writing one coalesced batch, retries included;</li>
+ *     <li>{@code employee.commands.commit_latency} - from publish until the write is committed,
+ *     i.e. visible in Postgres;</li>
+ *     <li>{@code employee.commands.coalesced} and {@code employee.rows.written} - commands
+ *     folded into others, and rows actually written;</li>
+ *     <li>{@code employee.commands.backlog{queue}} - messages waiting in each partition queue, as
+ *     of the last poll of the broker every {@code employee.commands.backlog-poll-interval}.</li>
+ * </ul>
+ * Publish times come from the {@code x-published-at} header; commands of producers that do not
+ * set it are left out of the latency histograms.
+ */
+@Component
+public class EmployeeCommandMetrics {
+
+    private final Map<CoalescedCommands.Operation, Timer> dwell = new EnumMap<>(CoalescedCommands.Operation.class);
+    private final Map<CoalescedCommands.Operation, Timer> processing = new EnumMap<>(CoalescedCommands.Operation.class);
+    private final Map<CoalescedCommands.Operation, Timer> commitLatency = new EnumMap<>(CoalescedCommands.Operation.class);
+    private final Map<CoalescedCommands.Operation, Counter> rowsWritten = new EnumMap<>(CoalescedCommands.Operation.class);
+    private final Counter coalesced;
+    private final AmqpAdmin amqpAdmin;
+    private final Map<String, AtomicReference<Double>> backlogs = new LinkedHashMap<>();
+
+    public EmployeeCommandMetrics(MeterRegistry meterRegistry, AmqpAdmin amqpAdmin, EmployeeCommandPartitions commandPartitions) {
+        for (CoalescedCommands.Operation operation : CoalescedCommands.Operation.values()) {
+            String tag = operation.name().toLowerCase(Locale.ROOT);
+            dwell.put(operation, histogram(meterRegistry, "employee.commands.dwell", "Time commands spent in the broker before being consumed", tag));
+            processing.put(operation, histogram(meterRegistry, "employee.commands.processing", "Time to write one batch of commands", tag));
+            commitLatency.put(operation, histogram(meterRegistry, "employee.commands.commit_latency", "Time from publishing a command until its write is committed", tag));
+            rowsWritten.put(operation, Counter.builder("employee.rows.written")
+                    .description("Employee rows written by the command listeners, by operation")
+                    .tag("operation", tag)
+                    .register(meterRegistry));
+        }
+        this.coalesced = Counter.builder("employee.commands.coalesced")
+                .description("Employee commands superseded by a later command for the same employee in the same batch")
+                .register(meterRegistry);
+        this.amqpAdmin = amqpAdmin;
+        for (int partition = 0; partition < commandPartitions.count(); partition++) {
+            String queue = EmployeeCommandPartitions.queueName(partition);
+            AtomicReference<Double> backlog = new AtomicReference<>(Double.NaN);
+            backlogs.put(queue, backlog);
+            Gauge.builder("employee.commands.backlog", backlog, AtomicReference::get)
+                    .description("Commands waiting in the queue")
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Asks the broker for the queue depths off the scrape path, so that scrapes never wait for it.
+     */
+    @Scheduled(fixedDelayString = "${employee.commands.backlog-poll-interval:PT15S}")
+    public void pollBacklog() {
+        backlogs.forEach((queue, backlog) -> backlog.set(backlog(amqpAdmin, queue)));
+    }
+
+    void received(CoalescedCommands.Operation operation, Long publishedAt) {
+        if (publishedAt != null) {
+            dwell.get(operation).record(since(publishedAt));
+        }
+    }
+
+    void committed(CoalescedCommands.Operation operation, Long publishedAt) {
+        if (publishedAt != null) {
+            commitLatency.get(operation).record(since(publishedAt));
+        }
+    }
+
+    Timer processing(CoalescedCommands.Operation operation) {
+        return processing.get(operation);
+    }
+
+    void rowsWritten(CoalescedCommands.Operation operation, int rows) {
+        rowsWritten.get(operation).increment(rows);
+    }
+
+    void coalesced(int commands) {
+        coalesced.increment(commands);
+    }
+
+    // Clocks of producer and consumer may differ slightly; negative times count as zero
+    private static Duration since(long publishedAt) {
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - publishedAt));
+    }
+
+    private static double backlog(AmqpAdmin admin, String queue) {
+        try {
+            QueueInformation information = admin.getQueueInfo(queue);
+            return information != null ? information.getMessageCount() : Double.NaN;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static Timer histogram(MeterRegistry meterRegistry, String name, String description, String operation) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
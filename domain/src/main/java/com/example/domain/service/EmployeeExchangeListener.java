@@ -1,65 +1,285 @@
 package com.example.domain.service;
 
+import com.example.domain.config.EmployeeCommandPartitions;
 import com.example.domain.employee.Employee;
-import com.example.domain.employee.EmployeeRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 import static com.example.domain.config.RabbitMQConfig.*;
 
+/**
+ * Consumes employee commands in batches (see {@code batchListenerContainerFactory}). Commands for
+ * the same employee are folded together first, then each kind of write is applied in a single
+ * transaction; if that fails, it is replayed one row at a time so that a single bad row does not
+ * take the others down with it.
+ * <p>
+ * Each partitioned command queue gets a listener container of its own, so partitions are
+ * applied in parallel while the commands within one partition stay in order.
+ * {@code employee.commands.consume-partitions} limits an instance to some of the partitions
+ * (e.g. {@code 0,1,2,3}); by default it subscribes to all of them.
+ */
 @Service
 @Slf4j
-public class EmployeeExchangeListener {
+public class EmployeeExchangeListener implements RabbitListenerConfigurer {
 
-    private final EmployeeRepository employeeRepository;
-    private final ObjectMapper objectMapper;
+    private final EmployeeService employeeService;
+    private final EmployeeCommandCodec commandCodec;
+    private final EmployeeCommandPartitions commandPartitions;
+    private final RabbitListenerContainerFactory<?> batchListenerContainerFactory;
 
-    public EmployeeExchangeListener(EmployeeRepository employeeRepository, ObjectMapper objectMapper) {
-        this.employeeRepository = employeeRepository;
-        this.objectMapper = objectMapper;
+    // Commands received are counted by the codec (employee.commands.received)
+    private final EmployeeCommandMetrics metrics;
+
+    @Value("${employee.commands.consume-partitions:}")
+    private String consumePartitions;
+
+    public EmployeeExchangeListener(EmployeeService employeeService, EmployeeCommandCodec commandCodec,
+                                    EmployeeCommandPartitions commandPartitions,
+                                    @Qualifier(batchListenerContainerFactoryName) RabbitListenerContainerFactory<?> batchListenerContainerFactory,
+                                    EmployeeCommandMetrics metrics) {
+        this.employeeService = employeeService;
+        this.commandCodec = commandCodec;
+        this.commandPartitions = commandPartitions;
+        this.batchListenerContainerFactory = batchListenerContainerFactory;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int partition : partitionsToConsume()) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("employeeCommands-" + partition);
+            endpoint.setQueueNames(EmployeeCommandPartitions.queueName(partition));
+            endpoint.setMessageListener((BatchMessageListener) this::onCommands);
+            registrar.registerEndpoint(endpoint, batchListenerContainerFactory);
+        }
+    }
+
+    /**
+     * Applies a batch from one partition; the operation of each message is its type.
+     */
+    public void onCommands(List<Message> messages) {
+        apply(messages, null);
+    }
+
+    @RabbitListener(queues = employeePostRequestQueueName, containerFactory = batchListenerContainerFactoryName)
+    public void onPostMethod(List<Message> messages) {
+        apply(messages, employeePostRequestQueueRoutingKey);
+    }
+
+    @RabbitListener(queues = employeePutRequestQueueName, containerFactory = batchListenerContainerFactoryName)
+    public void onPutMethod(List<Message> messages) {
+        apply(messages, employeePutRequestQueueRoutingKey);
+    }
+
+    @RabbitListener(queues = employeeDeleteRequestQueueName, containerFactory = batchListenerContainerFactoryName)
+    public void onDeleteMethod(List<Message> messages) {
+        apply(messages, employeeDeleteRequestQueueRoutingKey);
+    }
+
+    /**
+     * Folds the batch into one write per employee (see {@link CoalescedCommands}) before touching
+     * the database. The batch window, {@code employee.listener.receive-timeout} and
+     * {@code employee.listener.batch-size}, is therefore also the coalescing window.
+     *
+     * @param queueType the operation of every message on a per-operation queue, or {@code null}
+     *                  to take it from the message type
+     */
+    private void apply(List<Message> messages, String queueType) {
+        log.info("Received batch of {} commands", messages.size());
+        CoalescedCommands commands = new CoalescedCommands();
+        List<Received> received = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            String type = queueType != null ? queueType : EmployeeCommandCodec.commandType(message);
+            CoalescedCommands.Operation operation = operationOf(type);
+            if (operation == null) {
+                log.error("Dropping command of unknown type {}: {}", type, EmployeeCommandCodec.describe(message));
+                continue;
+            }
+            UUID id;
+            Employee employee = null;
+            try {
+                if (operation == CoalescedCommands.Operation.DELETE) {
+                    id = commandCodec.readId(message);
+                } else {
+                    employee = commandCodec.readEmployee(message);
+                    if (employee.getId() == null) {
+                        employee.setId(UUID.randomUUID());
+                    }
+                    id = employee.getId();
+                }
+                log.debug("Received {} request for ID {}, correlation id {}", type, id, EmployeeCommandCodec.correlationId(message));
+            } catch (Exception e) {
+                log.error("Error processing {} message: {}", type, EmployeeCommandCodec.describe(message), e);
+                continue;
+            }
+            Long publishedAt = EmployeeCommandCodec.publishedAt(message);
+            metrics.received(operation, publishedAt);
+            if (!commands.add(operation, id, employee)) {
+                write(commands, received);
+                commands = new CoalescedCommands();
+                received.clear();
+                commands.add(operation, id, employee);
+            }
+            received.add(new Received(operation, id, publishedAt));
+        }
+        write(commands, received);
+    }
+
+    /**
+     * Writes the pending commands. Commands whose employee was written have been committed once
+     * this returns, which ends their commit latency; commands that failed or found nothing to
+     * change are left out of it.
+     */
+    private void write(CoalescedCommands commands, List<Received> received) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        metrics.coalesced(commands.superseded());
+        Set<UUID> written = new HashSet<>();
+        if (!commands.creates().isEmpty()) {
+            written.addAll(metrics.processing(CoalescedCommands.Operation.CREATE).record(() -> writeCreates(commands.creates())));
+        }
+        if (!commands.updates().isEmpty()) {
+            written.addAll(metrics.processing(CoalescedCommands.Operation.UPDATE).record(() -> writeUpdates(commands.updates())));
+        }
+        if (!commands.deletes().isEmpty()) {
+            written.addAll(metrics.processing(CoalescedCommands.Operation.DELETE).record(() -> writeDeletes(commands.deletes())));
+        }
+        for (Received command : received) {
+            if (written.contains(command.id())) {
+                metrics.committed(command.operation(), command.publishedAt());
+            }
+        }
     }
 
-    @RabbitListener(queues = employeePostRequestQueueName)
-    public void onPostMethod(byte[] message) {
+    /**
+     * @return the ids of the employees created
+     */
+    private Set<UUID> writeCreates(List<Employee> employees) {
+        Set<UUID> written = new HashSet<>();
         try {
-            log.info("Received POST request: {}", new String(message));
-            Employee employee = objectMapper.readValue(message, Employee.class);
-            employeeRepository.save(employee);
-            log.info("Employee successfully created: {}", employee);
+            employeeService.applyCreates(employees).forEach(employee -> written.add(employee.getId()));
+            metrics.rowsWritten(CoalescedCommands.Operation.CREATE, written.size());
+            log.info("{} employees successfully created", written.size());
         } catch (Exception e) {
-            log.error("Error processing POST message", e);
+            log.error("Error processing batch of {} POST messages, retrying one by one", employees.size(), e);
+            for (Employee employee : employees) {
+                try {
+                    written.add(employeeService.applyCreate(employee).getId());
+                    metrics.rowsWritten(CoalescedCommands.Operation.CREATE, 1);
+                    log.info("Employee successfully created: {}", employee);
+                } catch (Exception ex) {
+                    log.error("Error processing POST message for Employee: {}", employee, ex);
+                }
+            }
         }
+        return written;
     }
 
-    @RabbitListener(queues = employeePutRequestQueueName)
-    public void onPutMethod(byte[] message) {
+    /**
+     * @return the ids of the employees updated, without those not found
+     */
+    private Set<UUID> writeUpdates(List<Employee> employees) {
+        Set<UUID> written = new HashSet<>();
         try {
-            log.info("Received PUT request: {}", new String(message));
-            Employee employee = objectMapper.readValue(message, Employee.class);
-            if (employeeRepository.existsById(employee.getId())) {
-                employeeRepository.save(employee);
-                log.info("Employee successfully updated: {}", employee);
-            } else {
-                log.warn("Employee not found for update: {}", employee.getId());
-            }
+            employeeService.applyUpdates(employees).forEach(employee -> written.add(employee.getId()));
+            metrics.rowsWritten(CoalescedCommands.Operation.UPDATE, written.size());
+            log.info("{} employees successfully updated, {} not found", written.size(), employees.size() - written.size());
         } catch (Exception e) {
-            log.error("Error processing PUT message", e);
+            log.error("Error processing batch of {} PUT messages, retrying one by one", employees.size(), e);
+            for (Employee employee : employees) {
+                try {
+                    if (employeeService.applyUpdate(employee)) {
+                        written.add(employee.getId());
+                        metrics.rowsWritten(CoalescedCommands.Operation.UPDATE, 1);
+                        log.info("Employee successfully updated: {}", employee);
+                    } else {
+                        log.warn("Employee not found for update: {}", employee.getId());
+                    }
+                } catch (Exception ex) {
+                    log.error("Error processing PUT message for Employee: {}", employee, ex);
+                }
+            }
         }
+        return written;
     }
 
-    @RabbitListener(queues = employeeDeleteRequestQueueName)
-    public void onDeleteMethod(byte[] message) {
+    /**
+     * @return the ids of the employees deleted, without those not found
+     */
+    private Set<UUID> writeDeletes(List<UUID> ids) {
+        Set<UUID> written = new HashSet<>();
         try {
-            log.info("Received DELETE request: {}", new String(message));
-            UUID id = UUID.fromString(new String(message));
-            employeeRepository.deleteById(id);
-            log.info("Employee successfully deleted for ID: {}", id);
+            written.addAll(employeeService.applyDeletes(ids));
+            metrics.rowsWritten(CoalescedCommands.Operation.DELETE, written.size());
+            log.info("{} employees successfully deleted, {} not found", written.size(), ids.size() - written.size());
         } catch (Exception e) {
-            log.error("Error processing DELETE message", e);
+            log.error("Error processing batch of {} DELETE messages, retrying one by one", ids.size(), e);
+            for (UUID id : ids) {
+                try {
+                    if (employeeService.applyDelete(id)) {
+                        written.add(id);
+                        metrics.rowsWritten(CoalescedCommands.Operation.DELETE, 1);
+                        log.info("Employee successfully deleted for ID: {}", id);
+                    } else {
+                        log.warn("Employee not found for delete: {}", id);
+                    }
+                } catch (Exception ex) {
+                    log.error("Error processing DELETE message for ID: {}", id, ex);
+                }
+            }
+        }
+        return written;
+    }
+
+    private static CoalescedCommands.Operation operationOf(String type) {
+        if (employeePostRequestQueueRoutingKey.equals(type)) {
+            return CoalescedCommands.Operation.CREATE;
+        }
+        if (employeePutRequestQueueRoutingKey.equals(type)) {
+            return CoalescedCommands.Operation.UPDATE;
+        }
+        if (employeeDeleteRequestQueueRoutingKey.equals(type)) {
+            return CoalescedCommands.Operation.DELETE;
         }
+        return null;
+    }
+
+    private Set<Integer> partitionsToConsume() {
+        Set<Integer> partitions = new TreeSet<>();
+        if (consumePartitions == null || consumePartitions.isBlank()) {
+            for (int partition = 0; partition < commandPartitions.count(); partition++) {
+                partitions.add(partition);
+            }
+            return partitions;
+        }
+        for (String partition : consumePartitions.split(",")) {
+            int value = Integer.parseInt(partition.trim());
+            if (value < 0 || value >= commandPartitions.count()) {
+                throw new IllegalStateException("Partition " + value + " does not exist, there are " + commandPartitions.count());
+            }
+            partitions.add(value);
+        }
+        return partitions;
+    }
+
+    private record Received(CoalescedCommands.Operation operation, UUID id, Long publishedAt) {
     }
-}
\ No newline at end of file
+}
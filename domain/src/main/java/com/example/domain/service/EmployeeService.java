@@ -1,28 +1,84 @@
 package com.example.domain.service;
 
+import com.example.domain.config.EmployeeCommandPartitions;
 import com.example.domain.employee.Employee;
 import com.example.domain.employee.EmployeeRepository;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import com.example.domain.event.EmployeeChangedEvent;
+import com.example.domain.event.EmployeeSnapshot;
+import com.example.domain.outbox.Outbox;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.domain.config.RabbitMQConfig.directExchangeName;
+import static com.example.domain.config.RabbitMQConfig.employeeDeleteRequestQueueRoutingKey;
+import static com.example.domain.config.RabbitMQConfig.employeePostRequestQueueRoutingKey;
+import static com.example.domain.config.RabbitMQConfig.employeePutRequestQueueRoutingKey;
 
 @Service
 public class EmployeeService {
 
     private final EmployeeRepository repository;
-    private final RabbitTemplate rabbitTemplate;
+    private final Outbox outbox;
+    private final MessageConverter messageConverter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeCommandPartitions commandPartitions;
 
-    public EmployeeService(EmployeeRepository repository, RabbitTemplate rabbitTemplate) {
+    public EmployeeService(EmployeeRepository repository, Outbox outbox, MessageConverter messageConverter,
+                           ApplicationEventPublisher eventPublisher, EmployeeCommandPartitions commandPartitions) {
         this.repository = repository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.outbox = outbox;
+        this.messageConverter = messageConverter;
+        this.eventPublisher = eventPublisher;
+        this.commandPartitions = commandPartitions;
     }
 
+    /**
+     * Ordered by id. Like {@link #getEmployeeById} and {@link #getEmployeesByIds}, this feeds the
+     * gateway caches and therefore reads from the primary: it runs in a read-write transaction,
+     * which is never routed to the replica. The gateway drops its copy of an employee when the
+     * change event arrives; a replica that has not replayed the change yet would hand back the
+     * old row, and the gateway would cache that until the TTL runs out.
+     */
+    @Transactional
     public List<Employee> getAllEmployees() {
-        return repository.findAll();
+        return repository.findAll(Sort.by("id"));
+    }
+
+    @Transactional
+    public List<Employee> getEmployeesByIds(Collection<UUID> ids) {
+        return repository.findAllById(ids);
+    }
+
+    /**
+     * Reads one keyset page ordered by id, starting right after {@code after}
+     * (or from the beginning when it is null). Rows are handed to the consumer
+     * as they come off the JDBC cursor instead of being collected into a list.
+     */
+    @Transactional(readOnly = true)
+    public void forEachEmployeeAfter(UUID after, int pageSize, Consumer<Employee> action) {
+        Limit limit = Limit.of(pageSize);
+        try (Stream<Employee> employees = after == null
+                ? repository.findAllByOrderByIdAsc(limit)
+                : repository.findByIdGreaterThanOrderByIdAsc(after, limit)) {
+            employees.forEach(action);
+        }
     }
 
+    @Transactional
     public Employee getEmployeeById(UUID id) {
         return repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Employee not found with ID: " + id));
@@ -30,7 +86,11 @@ public class EmployeeService {
 
     public void createEmployee(Employee employee) {
         validateEmployee(employee);
-        rabbitTemplate.convertAndSend("employeeExchange", "employee.post", employee);
+        // The id picks the partition, so it has to be known before sending
+        if (employee.getId() == null) {
+            employee.setId(UUID.randomUUID());
+        }
+        sendCommand(employee.getId(), employeePostRequestQueueRoutingKey, employee);
     }
 
     public void updateEmployee(UUID id, Employee employee) {
@@ -39,14 +99,134 @@ public class EmployeeService {
         }
         validateEmployee(employee);
         employee.setId(id);
-        rabbitTemplate.convertAndSend("employeeExchange", "employee.put", employee);
+        sendCommand(id, employeePutRequestQueueRoutingKey, employee);
     }
 
     public void deleteEmployee(UUID id) {
         if (!repository.existsById(id)) {
             throw new RuntimeException("Employee not found with ID: " + id);
         }
-        rabbitTemplate.convertAndSend("employeeExchange", "employee.delete", id.toString());
+        sendCommand(id, employeeDeleteRequestQueueRoutingKey, id.toString());
+    }
+
+    /**
+     * Applies create commands consumed from the broker in one transaction. Ids are pre-assigned,
+     * so a redelivered command, or a bulk import of employees that already exist, names a row
+     * that is already there. One SELECT finds those; they are overwritten like an update, and
+     * only the rest are persisted as new, so their INSERTs go out as one JDBC batch without a
+     * SELECT per row. Commands for one id arrive through one partition, so no other writer can
+     * insert it in between. Change events are only sent once the transaction commits.
+     *
+     * @return the employees created or overwritten
+     */
+    @Transactional
+    public List<Employee> applyCreates(List<Employee> employees) {
+        Map<UUID, Employee> existing = findExisting(employees);
+
+        List<Employee> inserts = new ArrayList<>(employees.size());
+        List<Employee> overwritten = new ArrayList<>();
+        for (Employee employee : employees) {
+            Employee managed = existing.get(employee.getId());
+            if (managed == null) {
+                inserts.add(employee.markNew());
+            } else {
+                copyValues(employee, managed);
+                overwritten.add(managed);
+            }
+        }
+        List<Employee> saved = new ArrayList<>(repository.saveAll(inserts));
+        repository.flush();
+        saved.forEach(employee -> publishChange(employee.getId(), EmployeeChangedEvent.Operation.CREATED, employee.getVersion(), employee));
+        overwritten.forEach(managed -> publishChange(managed.getId(), EmployeeChangedEvent.Operation.UPDATED, managed.getVersion(), managed));
+        saved.addAll(overwritten);
+        return saved;
+    }
+
+    /**
+     * Applies update commands in one transaction: existing rows are loaded with a single
+     * SELECT and modified in place, and the resulting UPDATEs are flushed as one JDBC batch.
+     * The flush happens before the events are built so that they carry the incremented versions.
+     * Updates for unknown ids are skipped.
+     *
+     * @return the employees that were actually updated
+     */
+    @Transactional
+    public List<Employee> applyUpdates(List<Employee> employees) {
+        Map<UUID, Employee> existing = findExisting(employees);
+
+        List<Employee> updated = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Employee managed = existing.get(employee.getId());
+            if (managed == null) {
+                continue;
+            }
+            copyValues(employee, managed);
+            updated.add(managed);
+        }
+        repository.flush();
+        updated.forEach(managed -> publishChange(managed.getId(), EmployeeChangedEvent.Operation.UPDATED, managed.getVersion(), managed));
+        return updated;
+    }
+
+    /**
+     * @return the ids that existed and were deleted
+     */
+    @Transactional
+    public List<UUID> applyDeletes(Collection<UUID> ids) {
+        List<Employee> existing = repository.findAllById(ids);
+        repository.deleteAllInBatch(existing);
+        // The deletion counts as one more change, ordered after the last update
+        existing.forEach(employee -> publishChange(employee.getId(), EmployeeChangedEvent.Operation.DELETED, employee.getVersion() + 1, null));
+        return existing.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    @Transactional
+    public Employee applyCreate(Employee employee) {
+        return applyCreates(List.of(employee)).get(0);
+    }
+
+    /**
+     * @return false if the employee does not exist (nothing is written in that case)
+     */
+    @Transactional
+    public boolean applyUpdate(Employee employee) {
+        return !applyUpdates(List.of(employee)).isEmpty();
+    }
+
+    /**
+     * @return false if the employee does not exist (nothing is written in that case)
+     */
+    @Transactional
+    public boolean applyDelete(UUID id) {
+        return !applyDeletes(List.of(id)).isEmpty();
+    }
+
+    private Map<UUID, Employee> findExisting(List<Employee> employees) {
+        return repository.findAllById(employees.stream().map(Employee::getId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+    }
+
+    private static void copyValues(Employee from, Employee to) {
+        to.setName(from.getName());
+        to.setPosition(from.getPosition());
+        to.setSalary(from.getSalary());
+        to.setHireDate(from.getHireDate());
+    }
+
+    // Through the outbox: the caller waits for one INSERT, not for the broker
+    private void sendCommand(UUID id, String commandType, Object payload) {
+        outbox.enqueue(directExchangeName, commandPartitions.routingKey(id.toString()),
+                messageConverter.toMessage(payload, EmployeeCommandCodec.commandProperties(commandType)));
+    }
+
+    private void publishChange(UUID id, EmployeeChangedEvent.Operation operation, long version, Employee employee) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.builder()
+                .id(id.toString())
+                .operation(operation)
+                .version(version)
+                .employee(employee != null ? EmployeeSnapshot.of(employee) : null)
+                .build());
     }
 
     private void validateEmployee(Employee employee) {
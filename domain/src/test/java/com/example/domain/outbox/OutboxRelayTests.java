@@ -0,0 +1,195 @@
+package com.example.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the relay against a real Postgres (the outbox queries are native) and a stubbed broker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTests {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private OutboxRepository repository;
+
+    @Autowired
+    private OutboxRelayLeaseRepository leaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private Outbox outbox;
+    private OutboxRelay relay;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        leaseRepository.deleteAllInBatch();
+
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        doAnswer(invocation -> sent.add(new String(invocation.<Message>getArgument(2).getBody(), StandardCharsets.UTF_8)))
+                .when(operations).send(anyString(), anyString(), any(Message.class));
+
+        relay = new OutboxRelay(repository, leaseRepository, rabbitTemplate, transactionManager, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "pollInterval", Duration.ofMillis(200));
+        ReflectionTestUtils.setField(relay, "confirmTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(relay, "maxAttempts", MAX_ATTEMPTS);
+        outbox = new Outbox(repository, relay, objectMapper);
+    }
+
+    @Test
+    void versionsOfAnAggregateGoOutInVersionOrder() {
+        // Inserted out of order, as by two transactions waiting on the same row lock
+        enqueue("alice v2", "alice", 2L);
+        enqueue("alice v1", "alice", 1L);
+        enqueue("bob v1", "bob", 1L);
+
+        relayAll();
+
+        assertThat(sent).containsExactly("alice v1", "bob v1", "alice v2");
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void leavesTheOutboxAloneWhileAnotherInstanceHoldsTheLease() {
+        enqueue("alice v1", "alice", 1L);
+        inTransaction(() -> leaseRepository.tryAcquire(1, "other-instance", 60));
+
+        assertThat(relayBatch()).isFalse();
+        assertThat(sent).isEmpty();
+        assertThat(repository.count()).isOne();
+
+        inTransaction(() -> leaseRepository.release(1, "other-instance"));
+        relayAll();
+
+        assertThat(sent).containsExactly("alice v1");
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void deadLettersAMessageTheBrokerKeepsRefusing() {
+        enqueue("poison", null, null);
+        enqueue("alice v1", "alice", 1L);
+        doThrow(new AmqpException("refused"))
+                .when(operations).send(anyString(), anyString(), argThatBodyIs("poison"));
+
+        // One failed batch, then the poison message on its own until it is given up on
+        for (int round = 0; round < 1 + MAX_ATTEMPTS; round++) {
+            assertThatThrownBy(this::relayBatch).isInstanceOf(AmqpException.class);
+        }
+        relayAll();
+
+        List<OutboxMessage> left = repository.findAll();
+        assertThat(left).singleElement().satisfies(message -> {
+            assertThat(message.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+            assertThat(message.getDeadLetteredAt()).isNotNull();
+            assertThat(message.getLastError()).contains("refused");
+        });
+        assertThat(sent).containsExactly("alice v1");
+        assertThat(repository.findOldest(10)).isEmpty();
+    }
+
+    @Test
+    void keepsTheBatchWhenConfirmsTimeOut() {
+        enqueue("alice v1", "alice", 1L);
+        enqueue("bob v1", "bob", 1L);
+        doThrow(new AmqpTimeoutException("no confirms")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        assertThatThrownBy(this::relayBatch).isInstanceOf(AmqpTimeoutException.class);
+
+        assertThat(repository.findAll()).hasSize(2).allSatisfy(message -> assertThat(message.getAttempts()).isZero());
+
+        doNothing().when(operations).waitForConfirmsOrDie(anyLong());
+        sent.clear();
+        relayAll();
+
+        assertThat(sent).containsExactly("alice v1", "bob v1");
+        assertThat(repository.count()).isZero();
+    }
+
+    private void enqueue(String body, String aggregateId, Long aggregateVersion) {
+        outbox.enqueue("employeeEventExchange", "employee.changed.0",
+                new Message(body.getBytes(StandardCharsets.UTF_8), new MessageProperties()), aggregateId, aggregateVersion);
+    }
+
+    private boolean relayBatch() {
+        return Boolean.TRUE.equals(ReflectionTestUtils.invokeMethod(relay, "relayBatch"));
+    }
+
+    private void relayAll() {
+        for (int round = 0; round < 10 && !repository.findOldest(1).isEmpty(); round++) {
+            relayBatch();
+        }
+    }
+
+    private void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    private static Message argThatBodyIs(String body) {
+        return argThat(message ->
+                message != null && body.equals(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.domain.service;
+
+import com.example.domain.employee.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.example.domain.service.CoalescedCommands.Operation.CREATE;
+import static com.example.domain.service.CoalescedCommands.Operation.DELETE;
+import static com.example.domain.service.CoalescedCommands.Operation.UPDATE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescedCommandsTests {
+
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private final CoalescedCommands commands = new CoalescedCommands();
+
+    @Test
+    void commandsForDifferentEmployeesAreKeptInOrder() {
+        assertThat(commands.add(UPDATE, BOB, employee(BOB, 1))).isTrue();
+        assertThat(commands.add(UPDATE, ALICE, employee(ALICE, 2))).isTrue();
+        assertThat(commands.add(CREATE, UUID.randomUUID(), employee(UUID.randomUUID(), 3))).isTrue();
+
+        assertThat(commands.updates()).extracting(Employee::getId).containsExactly(BOB, ALICE);
+        assertThat(commands.creates()).hasSize(1);
+        assertThat(commands.superseded()).isZero();
+    }
+
+    @Test
+    void updateOfPendingCreateStaysCreateWithNewValues() {
+        commands.add(CREATE, ALICE, employee(ALICE, 1));
+        commands.add(UPDATE, ALICE, employee(ALICE, 2));
+
+        assertThat(commands.creates()).extracting(Employee::getSalary).containsExactly(2.0);
+        assertThat(commands.updates()).isEmpty();
+        assertThat(commands.superseded()).isEqualTo(1);
+    }
+
+    @Test
+    void lastUpdateWins() {
+        commands.add(UPDATE, ALICE, employee(ALICE, 1));
+        commands.add(UPDATE, ALICE, employee(ALICE, 2));
+        commands.add(UPDATE, ALICE, employee(ALICE, 3));
+
+        assertThat(commands.updates()).extracting(Employee::getSalary).containsExactly(3.0);
+        assertThat(commands.superseded()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteSupersedesPendingCreateAndUpdate() {
+        commands.add(CREATE, ALICE, employee(ALICE, 1));
+        commands.add(DELETE, ALICE, null);
+        commands.add(UPDATE, BOB, employee(BOB, 1));
+        commands.add(DELETE, BOB, null);
+
+        assertThat(commands.creates()).isEmpty();
+        assertThat(commands.updates()).isEmpty();
+        assertThat(commands.deletes()).containsExactly(ALICE, BOB);
+        assertThat(commands.superseded()).isEqualTo(2);
+    }
+
+    @Test
+    void updatesAndDeletesAfterDeleteAreDropped() {
+        commands.add(DELETE, ALICE, null);
+        assertThat(commands.add(UPDATE, ALICE, employee(ALICE, 1))).isTrue();
+        assertThat(commands.add(DELETE, ALICE, null)).isTrue();
+
+        assertThat(commands.updates()).isEmpty();
+        assertThat(commands.deletes()).containsExactly(ALICE);
+        assertThat(commands.superseded()).isEqualTo(2);
+    }
+
+    @Test
+    void createAfterPendingUpdateOrDeleteHasToWait() {
+        commands.add(UPDATE, ALICE, employee(ALICE, 1));
+        commands.add(DELETE, BOB, null);
+
+        assertThat(commands.add(CREATE, ALICE, employee(ALICE, 2))).isFalse();
+        assertThat(commands.add(CREATE, BOB, employee(BOB, 2))).isFalse();
+
+        assertThat(commands.creates()).isEmpty();
+        assertThat(commands.updates()).extracting(Employee::getSalary).containsExactly(1.0);
+        assertThat(commands.deletes()).containsExactly(BOB);
+        assertThat(commands.superseded()).isZero();
+    }
+
+    @Test
+    void emptyUntilTheFirstCommand() {
+        assertThat(commands.isEmpty()).isTrue();
+
+        commands.add(DELETE, ALICE, null);
+
+        assertThat(commands.isEmpty()).isFalse();
+    }
+
+    private static Employee employee(UUID id, double salary) {
+        return Employee.builder().id(id).name("Employee").position("Engineer").salary(salary).build();
+    }
+}
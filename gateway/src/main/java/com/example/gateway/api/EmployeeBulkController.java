@@ -0,0 +1,62 @@
+package com.example.gateway.api;
+
+import com.example.gateway.api.dto.BulkImportResultDTO;
+import com.example.gateway.service.EmployeeBulkImportService;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static com.example.gateway.api.EmployeeController.APPLICATION_NDJSON_VALUE;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Slf4j
+public class EmployeeBulkController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final EmployeeBulkImportService bulkImportService;
+
+    @Timed(value = "gateway.bulkImportEmployees", description = "Time taken to bulk import employees")
+    @PostMapping(value = "/employees:bulk", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<?> bulkImportEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        log.info("Received bulk import request with content type {}", contentType);
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        EmployeeBulkImportService.Format format = mediaType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                ? EmployeeBulkImportService.Format.CSV
+                : EmployeeBulkImportService.Format.NDJSON;
+        try {
+            BulkImportResultDTO result = bulkImportService.importEmployees(body, charset, format);
+            return ResponseEntity.ok(Map.of(
+                    "status", result.getRejected() == 0 ? "success" : "partial",
+                    "result", result
+            ));
+        } catch (IllegalArgumentException e) {
+            log.error("Rejected bulk import request", e);
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", e.getLocalizedMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Error occurred while importing employees", e);
+            return ResponseEntity.status(500).body(Map.of(
+                    "status", "error",
+                    "message", e.getLocalizedMessage()
+            ));
+        }
+    }
+}
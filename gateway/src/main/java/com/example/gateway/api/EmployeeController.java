@@ -1,16 +1,38 @@
 package com.example.gateway.api;
 
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.codec.EmployeeBody;
+import com.example.gateway.api.codec.EmployeeJson;
+import com.example.gateway.api.codec.EmployeeListBody;
 import com.example.gateway.api.dto.EmployeeRequestDTO;
-import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.example.gateway.service.EmployeeListRefresher;
 import com.example.gateway.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/employees")
@@ -18,46 +40,159 @@ import java.util.Map;
 @Slf4j
 public class EmployeeController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final EmployeeService employeeService;
+    private final EmployeeETags employeeETags;
+    private final EmployeeListRefresher employeeListRefresher;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.employees.stream-page-size:500}")
+    private int streamPageSize;
+
+    @Value("${gateway.employees.max-ids:100}")
+    private int maxIds;
+
+    @Value("${gateway.limiter.retry-after:1s}")
+    private Duration retryAfter;
 
     @Timed(value = "gateway.getAllEmployees", description = "Time taken to fetch all employees")
     @GetMapping
-    public ResponseEntity<?> getAllEmployees() {
+    public CompletableFuture<ResponseEntity<?>> getAllEmployees(@RequestParam(required = false) Integer limit,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) List<String> ids,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ids != null) {
+            return getEmployeesByIds(ids);
+        }
+        if (limit != null || cursor != null) {
+            return getEmployeePage(limit, cursor);
+        }
         log.info("Received request to fetch all employees");
-        try {
-            List<EmployeeResponseDTO> employees = employeeService.getAllEmployees();
-            log.info("Returning {} employees", employees.size());
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "employees", employees
-            ));
-        } catch (Exception e) {
-            log.error("Error occurred while fetching all employees", e);
-            return ResponseEntity.status(500).body(Map.of(
+        employeeListRefresher.onRead();
+        return employeeService.getAllEmployees()
+                .<ResponseEntity<?>>thenApply(response -> {
+                    String etag = employeeETags.of(response);
+                    if (employeeETags.matches(ifNoneMatch, etag)) {
+                        log.info("Employee list not modified: {}", etag);
+                        return notModified(etag);
+                    }
+                    log.info("Returning {} employees", response.getEmployeesCount());
+                    return negotiated(HttpStatus.OK).eTag(etag).body(EmployeeListBody.of(response.getEmployeesList()));
+                })
+                .exceptionally(e -> {
+                    log.error("Error occurred while fetching all employees", e);
+                    return readError(e);
+                });
+    }
+
+    private CompletableFuture<ResponseEntity<?>> getEmployeePage(Integer limit, String cursor) {
+        log.info("Received request to fetch employee page: limit={}, cursor={}", limit, cursor);
+        if (limit != null && limit <= 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
                     "status", "error",
-                    "message", e.getLocalizedMessage()
-            ));
+                    "message", "limit must be greater than zero"
+            )));
         }
+        return employeeService.getEmployeePage(limit == null ? 0 : limit, cursor)
+                .<ResponseEntity<?>>thenApply(page -> {
+                    log.info("Returning page of {} employees", page.getEmployeesCount());
+                    return negotiated(HttpStatus.OK).body(EmployeeListBody.page(page));
+                })
+                .exceptionally(e -> {
+                    log.error("Error occurred while fetching employee page", e);
+                    return readError(e);
+                });
+    }
+
+    /**
+     * Resolves every id through the cached single-employee lookup; ids missing from the cache are
+     * fetched from the domain service together. Unknown ids are reported in {@code notFound}.
+     */
+    private CompletableFuture<ResponseEntity<?>> getEmployeesByIds(List<String> ids) {
+        Set<String> uniqueIds = ids.stream()
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        log.info("Received request to fetch {} employees by ID", uniqueIds.size());
+        if (uniqueIds.isEmpty() || uniqueIds.size() > maxIds) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "ids must contain between 1 and " + maxIds + " ids"
+            )));
+        }
+
+        Map<String, CompletableFuture<EmployeeProto.Employee>> lookups = new LinkedHashMap<>();
+        for (String id : uniqueIds) {
+            lookups.put(id, employeeService.getEmployeeById(id)
+                    .exceptionally(e -> {
+                        if (statusCode(e) == Status.Code.NOT_FOUND) {
+                            return null;
+                        }
+                        throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                    }));
+        }
+
+        return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                .<ResponseEntity<?>>thenApply(ignored -> {
+                    List<EmployeeProto.Employee> employees = new ArrayList<>(lookups.size());
+                    List<String> notFound = new ArrayList<>();
+                    lookups.forEach((id, lookup) -> {
+                        EmployeeProto.Employee employee = lookup.join();
+                        if (employee != null) {
+                            employees.add(employee);
+                        } else {
+                            notFound.add(id);
+                        }
+                    });
+                    log.info("Returning {} employees, {} not found", employees.size(), notFound.size());
+                    return negotiated(HttpStatus.OK).body(EmployeeListBody.byIds(employees, notFound));
+                })
+                .exceptionally(e -> {
+                    log.error("Error occurred while fetching employees by ID", e);
+                    return readError(e);
+                });
+    }
+
+    @Timed(value = "gateway.streamAllEmployees", description = "Time taken to stream all employees as NDJSON")
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees(@RequestParam(required = false) String cursor) {
+        log.info("Received request to stream all employees, cursor={}", cursor);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(out), JsonEncoding.UTF8)) {
+                employeeService.streamEmployees(streamPageSize, cursor, employees -> {
+                    for (EmployeeProto.Employee employee : employees) {
+                        EmployeeJson.writeEmployee(generator, employee);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .header("Content-Type", APPLICATION_NDJSON_VALUE)
+                .body(body);
     }
 
     @Timed(value = "gateway.getEmployeeById", description = "Time taken to fetch employee by ID")
     @GetMapping("/{id}")
-    public ResponseEntity<?> getEmployeeById(@PathVariable String id) {
+    public CompletableFuture<ResponseEntity<?>> getEmployeeById(@PathVariable String id,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Received request to fetch employee by ID: {}", id);
-        try {
-            EmployeeResponseDTO employee = employeeService.getEmployeeById(id);
-            log.info("Returning employee: {}", employee);
-            return ResponseEntity.ok(Map.of(
-                    "status", "success",
-                    "employee", employee
-            ));
-        } catch (Exception e) {
-            log.error("Error occurred while fetching employee by ID {}: {}", id, e);
-            return ResponseEntity.status(500).body(Map.of(
-                    "status", "error",
-                    "message", e.getLocalizedMessage()
-            ));
-        }
+        return employeeService.getEmployeeById(id)
+                .<ResponseEntity<?>>thenApply(employee -> {
+                    String etag = employeeETags.of(employee);
+                    if (employeeETags.matches(ifNoneMatch, etag)) {
+                        log.info("Employee {} not modified: {}", employee.getId(), etag);
+                        return notModified(etag);
+                    }
+                    log.info("Returning employee: {}", employee.getId());
+                    return negotiated(HttpStatus.OK).eTag(etag).body(new EmployeeBody(employee));
+                })
+                .exceptionally(e -> {
+                    log.error("Error occurred while fetching employee by ID {}: {}", id, e);
+                    return readError(e);
+                });
     }
 
     @Timed(value = "gateway.createEmployee", description = "Time taken to create an employee")
@@ -119,4 +254,46 @@ public class EmployeeController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<?> notModified(String etag) {
+        return negotiated(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * Employee bodies are rendered as JSON or protobuf depending on {@code Accept}, and may be
+     * compressed depending on {@code Accept-Encoding}; shared caches have to key on both.
+     */
+    private static ResponseEntity.BodyBuilder negotiated(HttpStatus status) {
+        return ResponseEntity.status(status).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * A read that ran out of its deadline is reported as 504 so callers can tell it apart
+     * from a failure of the domain service; one turned away by the concurrency limit as 503.
+     */
+    private ResponseEntity<?> readError(Throwable e) {
+        Throwable cause = unwrap(e);
+        int status = switch (statusCode(e)) {
+            case DEADLINE_EXCEEDED -> 504;
+            case NOT_FOUND -> 404;
+            case RESOURCE_EXHAUSTED -> 503;
+            default -> 500;
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (status == 503) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+        }
+        return response.body(Map.of(
+                "status", "error",
+                "message", String.valueOf(cause.getLocalizedMessage())
+        ));
+    }
+
+    private static Status.Code statusCode(Throwable e) {
+        return unwrap(e) instanceof StatusRuntimeException statusException ? statusException.getStatus().getCode() : Status.Code.UNKNOWN;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
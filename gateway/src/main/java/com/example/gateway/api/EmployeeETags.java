@@ -0,0 +1,73 @@
+package com.example.gateway.api;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.ETag;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity tags for employee responses, derived from the row versions carried in the protobuf
+ * messages. A tag can therefore be computed from a cached message without rendering the body
+ * or asking the domain service.
+ * <p>
+ * Tags are weak: the same data goes out as JSON or protobuf, compressed or not, and those
+ * representations differ byte for byte. A weak tag may be shared by such equivalent
+ * representations, and {@code If-None-Match} only needs weak comparison.
+ */
+@Component
+public class EmployeeETags {
+
+    // The L1 cache hands out the same list instance until the list changes, so each instance is hashed once
+    private final Cache<EmployeeProto.EmployeeListResponse, String> listTags = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(16)
+            .build();
+
+    public String of(EmployeeProto.Employee employee) {
+        return "W/\"" + employee.getVersion() + "\"";
+    }
+
+    /**
+     * Count plus an order-sensitive hash of every (id, version) pair. The maximum version alone
+     * would miss updates: versions are counted per row, so an update to one employee usually
+     * leaves the maximum unchanged.
+     */
+    public String of(EmployeeProto.EmployeeListResponse employees) {
+        return listTags.get(employees, EmployeeETags::compute);
+    }
+
+    /**
+     * Weak comparison, as RFC 9110 prescribes for {@code If-None-Match}.
+     */
+    public boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(etag);
+        for (ETag candidate : ETag.parse(ifNoneMatch)) {
+            if (candidate.isWildcard() || candidate.compare(current, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String compute(EmployeeProto.EmployeeListResponse employees) {
+        long hash = 1;
+        for (EmployeeProto.Employee employee : employees.getEmployeesList()) {
+            hash = 31 * hash + mix(employee.getId().hashCode() * 0x9E3779B97F4A7C15L ^ employee.getVersion());
+        }
+        return "W/\"" + employees.getEmployeesCount() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    // Final step of MurmurHash3 (fmix64)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
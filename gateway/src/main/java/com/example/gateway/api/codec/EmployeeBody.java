@@ -0,0 +1,9 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+
+/**
+ * Success response for a single employee: {@code {"status":"success","employee":{...}}}.
+ */
+public record EmployeeBody(EmployeeProto.Employee employee) {
+}
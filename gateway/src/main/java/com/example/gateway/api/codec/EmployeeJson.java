@@ -0,0 +1,61 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes employee responses straight from the protobuf messages with the streaming generator:
+ * no DTOs, no envelope maps, no reflection. The output matches what Jackson produced for
+ * {@code EmployeeResponseDTO} wrapped in the controller's {@code Map.of(...)} envelopes.
+ */
+public final class EmployeeJson {
+
+    private EmployeeJson() {
+    }
+
+    public static void writeEmployee(JsonGenerator generator, EmployeeProto.Employee employee) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", employee.getId());
+        generator.writeStringField("name", employee.hasName() ? employee.getName() : null);
+        generator.writeStringField("position", employee.hasPosition() ? employee.getPosition() : null);
+        generator.writeNumberField("salary", employee.getSalary());
+        generator.writeStringField("hireDate", employee.hasHireDate() ? employee.getHireDate() : null);
+        generator.writeEndObject();
+    }
+
+    public static void writeBody(JsonGenerator generator, EmployeeBody body) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("status", "success");
+        generator.writeFieldName("employee");
+        writeEmployee(generator, body.employee());
+        generator.writeEndObject();
+    }
+
+    public static void writeBody(JsonGenerator generator, EmployeeListBody body) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("status", "success");
+        generator.writeArrayFieldStart("employees");
+        for (EmployeeProto.Employee employee : body.employees()) {
+            writeEmployee(generator, employee);
+        }
+        generator.writeEndArray();
+        if (body.nextCursor() != null) {
+            generator.writeStringField("nextCursor", body.nextCursor());
+        }
+        if (body.notFound() != null) {
+            writeStrings(generator, "notFound", body.notFound());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator generator, String fieldName, List<String> values) throws IOException {
+        generator.writeArrayFieldStart(fieldName);
+        for (String value : values) {
+            generator.writeString(value);
+        }
+        generator.writeEndArray();
+    }
+}
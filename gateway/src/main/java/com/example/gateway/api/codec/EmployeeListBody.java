@@ -0,0 +1,24 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+
+import java.util.List;
+
+/**
+ * Success response for a list of employees: {@code {"status":"success","employees":[...]}},
+ * plus {@code nextCursor} for keyset pages and {@code notFound} for lookups by id when set.
+ */
+public record EmployeeListBody(List<EmployeeProto.Employee> employees, String nextCursor, List<String> notFound) {
+
+    public static EmployeeListBody of(List<EmployeeProto.Employee> employees) {
+        return new EmployeeListBody(employees, null, null);
+    }
+
+    public static EmployeeListBody page(EmployeeProto.EmployeePage page) {
+        return new EmployeeListBody(page.getEmployeesList(), page.getNextCursor().isEmpty() ? null : page.getNextCursor(), null);
+    }
+
+    public static EmployeeListBody byIds(List<EmployeeProto.Employee> employees, List<String> notFound) {
+        return new EmployeeListBody(employees, null, notFound);
+    }
+}
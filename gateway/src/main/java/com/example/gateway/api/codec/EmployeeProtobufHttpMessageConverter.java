@@ -0,0 +1,74 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.google.protobuf.Message;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes {@link EmployeeBody} and {@link EmployeeListBody} as protobuf for clients that accept
+ * {@code application/x-protobuf}:
+ * <ul>
+ *     <li>a single employee as {@code EmployeeResponse};</li>
+ *     <li>a page with a next cursor as {@code EmployeePage};</li>
+ *     <li>any other list as {@code EmployeeListResponse}, with {@code notFound} for lookups by id.
+ *     Its wire format is compatible with {@code EmployeePage}, so a last page parses either way.</li>
+ * </ul>
+ * The message name is sent in {@code X-Protobuf-Message}. Write-only.
+ */
+public class EmployeeProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private static final String X_PROTOBUF_MESSAGE_HEADER = "X-Protobuf-Message";
+
+    public EmployeeProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return EmployeeBody.class == clazz || EmployeeListBody.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading " + clazz.getName() + " is not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        Message message = toMessage(body);
+        outputMessage.getHeaders().set(X_PROTOBUF_MESSAGE_HEADER, message.getDescriptorForType().getFullName());
+        message.writeTo(outputMessage.getBody());
+    }
+
+    static Message toMessage(Object body) {
+        if (body instanceof EmployeeBody employeeBody) {
+            return EmployeeProto.EmployeeResponse.newBuilder().setEmployee(employeeBody.employee()).build();
+        }
+        EmployeeListBody listBody = (EmployeeListBody) body;
+        if (listBody.nextCursor() != null) {
+            return EmployeeProto.EmployeePage.newBuilder()
+                    .addAllEmployees(listBody.employees())
+                    .setNextCursor(listBody.nextCursor())
+                    .build();
+        }
+        return EmployeeProto.EmployeeListResponse.newBuilder()
+                .addAllEmployees(listBody.employees())
+                .addAllNotFound(Objects.requireNonNullElse(listBody.notFound(), List.of()))
+                .build();
+    }
+}
@@ -0,0 +1,333 @@
+package com.example.gateway.api.codec;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response compression with zstd, or gzip for clients that do not accept zstd. zstd compresses
+ * about as well as gzip at a fraction of the CPU cost. Tomcat's {@code server.compression} is
+ * not used: it only does gzip, and it would gzip a zstd body a second time.
+ * <p>
+ * The first {@code minResponseSize} bytes are buffered; smaller bodies go out as they are.
+ * Bigger ones are encoded when their content type is one of {@code mimeTypes}. The filter runs
+ * again on the async dispatch of {@code CompletableFuture} and streaming handlers, and finishes
+ * the stream after the last one.
+ * <p>
+ * An encoded response gets {@code Vary: Accept-Encoding}, and a strong {@code ETag} on it is
+ * made weak, since the encoded bytes are a different representation.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String ZSTD = "zstd";
+    private static final String GZIP = "gzip";
+
+    private final List<MimeType> mimeTypes;
+    private final int minResponseSize;
+    private final int zstdLevel;
+
+    public ResponseCompressionFilter(List<MimeType> mimeTypes, int minResponseSize, int zstdLevel) {
+        this.mimeTypes = mimeTypes;
+        this.minResponseSize = minResponseSize;
+        this.zstdLevel = zstdLevel;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponse compressingResponse = WebUtils.getNativeResponse(response, CompressingResponse.class);
+        if (compressingResponse == null) {
+            String coding = selectCoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            if (coding == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            compressingResponse = new CompressingResponse(response, coding);
+        }
+        filterChain.doFilter(request, compressingResponse);
+        if (!isAsyncStarted(request)) {
+            compressingResponse.finish();
+        }
+    }
+
+    /**
+     * @return zstd if accepted, otherwise gzip if accepted, otherwise null. Weights other than
+     * {@code q=0} are not compared.
+     */
+    static String selectCoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        boolean gzip = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.trim().split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase(ZSTD) && !coding.equalsIgnoreCase(GZIP) || isRejected(parts)) {
+                continue;
+            }
+            if (coding.equalsIgnoreCase(ZSTD)) {
+                return ZSTD;
+            }
+            gzip = true;
+        }
+        return gzip ? GZIP : null;
+    }
+
+    private static boolean isRejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        if (contentType == null || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            return false;
+        }
+        MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+        return mimeTypes.stream().anyMatch(mimeType::equalsTypeAndSubtype);
+    }
+
+    private static boolean variesByAcceptEncoding(HttpServletResponse response) {
+        for (String vary : response.getHeaders(HttpHeaders.VARY)) {
+            for (String header : vary.split(",")) {
+                String name = header.trim();
+                if (name.equals("*") || name.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private final class CompressingResponse extends HttpServletResponseWrapper {
+
+        private final String coding;
+        private CompressingOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CompressingResponse(HttpServletResponse response, String coding) {
+            super(response);
+            this.coding = coding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called on this response");
+            }
+            return outputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called on this response");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(outputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // The length is only known once it is decided whether the body gets encoded
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (outputStream != null) {
+                outputStream.flush();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (outputStream != null) {
+                outputStream.resetBuffer();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            resetBuffer();
+            super.reset();
+        }
+
+        private CompressingOutputStream outputStream() {
+            if (outputStream == null) {
+                outputStream = new CompressingOutputStream(this);
+            }
+            return outputStream;
+        }
+
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream != null) {
+                outputStream.close();
+            }
+        }
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final CompressingResponse response;
+        private final byte[] buffer = new byte[Math.max(minResponseSize, 1)];
+        private int count;
+        private OutputStream target;
+        private boolean closed;
+
+        private CompressingOutputStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (target == null && count < buffer.length - 1) {
+                buffer[count++] = (byte) b;
+                return;
+            }
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Response stream is closed");
+            }
+            if (target == null) {
+                if (count + len < buffer.length) {
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                start();
+            }
+            target.write(b, off, len);
+        }
+
+        // Before the threshold is reached there is nothing to flush yet: the response is still undecided
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (target == null) {
+                HttpServletResponse original = (HttpServletResponse) response.getResponse();
+                if (count > 0) {
+                    original.setContentLength(count);
+                    original.getOutputStream().write(buffer, 0, count);
+                }
+                return;
+            }
+            target.close();
+        }
+
+        // Non-blocking writes go through to the container's stream; until the threshold is reached they only fill the buffer
+        @Override
+        public boolean isReady() {
+            try {
+                return response.getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                response.getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not register the write listener", e);
+            }
+        }
+
+        private void resetBuffer() {
+            if (target == null) {
+                count = 0;
+            }
+        }
+
+        private void start() throws IOException {
+            HttpServletResponse original = (HttpServletResponse) response.getResponse();
+            OutputStream out = original.getOutputStream();
+            if (isCompressible(response)) {
+                original.setHeader(HttpHeaders.CONTENT_ENCODING, response.coding);
+                if (!variesByAcceptEncoding(original)) {
+                    original.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                String etag = original.getHeader(HttpHeaders.ETAG);
+                if (etag != null && etag.startsWith("\"")) {
+                    original.setHeader(HttpHeaders.ETAG, "W/" + etag);
+                }
+                // Both flush on flush(), so streamed NDJSON pages still reach the client page by page
+                out = ZSTD.equals(response.coding) ? new ZstdOutputStream(out, zstdLevel) : new GZIPOutputStream(out, 8192, true);
+            }
+            target = out;
+            target.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.gateway.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkImportResultDTO {
+    private long total;
+    private long accepted;
+    private long rejected;
+    private List<BulkRowResultDTO> errors;
+    private boolean errorsTruncated;
+}
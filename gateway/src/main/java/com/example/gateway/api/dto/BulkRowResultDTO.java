@@ -0,0 +1,16 @@
+package com.example.gateway.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRowResultDTO {
+    private long row;
+    private String id;
+    private String message;
+}
@@ -0,0 +1,131 @@
+package com.example.gateway.api.limit;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the calls in flight to the domain service with a {@link VegasLimit} fed by the latency of
+ * those calls, so only reads that miss the caches take part: cache hits and 304s never get here.
+ * A call over the limit fails right away with {@link Status#RESOURCE_EXHAUSTED}, which the
+ * controller answers with 503 and {@code Retry-After}. Registered on the channel, so a hedged call
+ * holds one slot for all of its attempts.
+ * <p>
+ * Timeouts and UNAVAILABLE count as drops. Streams hold a slot but are not sampled, since they run
+ * as long as the client keeps reading. Exported like the write budget of
+ * {@link ConcurrencyLimitFilter}, tagged with {@code budget=read}.
+ */
+public class ConcurrencyLimitClientInterceptor implements ClientInterceptor {
+
+    public static final String LIMIT_REACHED = "Too many concurrent requests to the domain service, retry later";
+
+    private static final Set<Status.Code> DROPPED = EnumSet.of(
+            Status.Code.DEADLINE_EXCEEDED, Status.Code.UNAVAILABLE, Status.Code.RESOURCE_EXHAUSTED);
+
+    private final VegasLimit limit;
+    private final Counter rejected;
+
+    public ConcurrencyLimitClientInterceptor(VegasLimit limit, MeterRegistry meterRegistry) {
+        this.limit = limit;
+        this.rejected = ConcurrencyLimitMetrics.register(meterRegistry, "read", limit);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+        return new LimitedCall<>(next.newCall(method, callOptions), method.getType() == MethodDescriptor.MethodType.UNARY);
+    }
+
+    /**
+     * Takes its slot when started and gives it back exactly once, when the call closes.
+     */
+    private final class LimitedCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+        private final boolean sampled;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean rejectedCall;
+        private long startNanos;
+
+        private LimitedCall(ClientCall<ReqT, RespT> delegate, boolean sampled) {
+            super(delegate);
+            this.sampled = sampled;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            if (!limit.tryAcquire()) {
+                rejected.increment();
+                rejectedCall = true;
+                responseListener.onClose(Status.RESOURCE_EXHAUSTED.withDescription(LIMIT_REACHED), new Metadata());
+                return;
+            }
+            startNanos = System.nanoTime();
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        release(status.getCode());
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                release(Status.Code.UNKNOWN);
+                throw e;
+            }
+        }
+
+        private void release(Status.Code code) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (DROPPED.contains(code)) {
+                limit.onDropped();
+            } else if (!sampled || code == Status.Code.CANCELLED) {
+                limit.onIgnored();
+            } else {
+                limit.onSuccess(System.nanoTime() - startNanos);
+            }
+        }
+
+        // The stubs keep using a rejected call until they see it closed; the delegate was never started
+
+        @Override
+        public void request(int numMessages) {
+            if (!rejectedCall) {
+                super.request(numMessages);
+            }
+        }
+
+        @Override
+        public void sendMessage(ReqT message) {
+            if (!rejectedCall) {
+                super.sendMessage(message);
+            }
+        }
+
+        @Override
+        public void halfClose() {
+            if (!rejectedCall) {
+                super.halfClose();
+            }
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            if (!rejectedCall) {
+                super.cancel(message, cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.gateway.api.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds writes before they reach the controllers: every write ends up at the domain service
+ * through the broker, so their {@link VegasLimit} adapts to the latency of the requests it lets
+ * through, publisher confirms included. A write over the limit is answered right away with 503
+ * and {@code Retry-After} instead of queueing behind the others. A slot is held until the
+ * response is complete, including asynchronous ones. Reads (GET, HEAD) pass untouched; the ones
+ * that reach the domain are limited by {@link ConcurrencyLimitClientInterceptor}.
+ * <p>
+ * Exported as {@code gateway.concurrency.limit}, {@code gateway.concurrency.in_flight} and
+ * {@code gateway.concurrency.rejected}, tagged with {@code budget=write}.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY = "{\"status\":\"error\",\"message\":\"Too many concurrent requests, retry later\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final VegasLimit writeLimit;
+    private final Counter rejectedWrites;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(VegasLimit writeLimit, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.rejectedWrites = ConcurrencyLimitMetrics.register(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!writeLimit.tryAcquire()) {
+            rejectedWrites.increment();
+            reject(response);
+            return;
+        }
+
+        Permit permit = new Permit(writeLimit, response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (completed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release(!completed);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    /**
+     * One slot, released exactly once: when the filter chain returns, or for asynchronous
+     * requests when the async context completes.
+     */
+    private static final class Permit implements AsyncListener {
+
+        private final VegasLimit limit;
+        private final HttpServletResponse response;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(VegasLimit limit, HttpServletResponse response) {
+            this.limit = limit;
+            this.response = response;
+        }
+
+        void release(boolean failed) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            if (failed || response.getStatus() >= 500) {
+                limit.onDropped();
+            } else {
+                limit.onSuccess(System.nanoTime() - startNanos);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gateway.api.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Meters shared by both budgets, told apart by the {@code budget} tag.
+ */
+final class ConcurrencyLimitMetrics {
+
+    private ConcurrencyLimitMetrics() {
+    }
+
+    static Counter register(MeterRegistry meterRegistry, String budget, VegasLimit limit) {
+        Gauge.builder("gateway.concurrency.limit", limit, VegasLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("budget", budget)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in_flight", limit, VegasLimit::getInFlight)
+                .description("Requests currently holding a concurrency slot")
+                .tag("budget", budget)
+                .register(meterRegistry);
+        return Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected with 503 because the concurrency limit was reached")
+                .tag("budget", budget)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.gateway.api.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit in the style of TCP Vegas. The lowest latency seen is taken as the
+ * latency without queueing; how far a sample is above it estimates how many requests are queued
+ * somewhere downstream. The limit grows while that queue is small, shrinks once it builds up and
+ * backs off multiplicatively on failures. Every {@code 30 * limit} samples the no-load latency is
+ * reset to the current sample so that the estimate follows a dependency that got slower for good.
+ */
+public class VegasLimit {
+
+    private static final int PROBE_MULTIPLIER = 30;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    // Guarded by this
+    private long rttNoLoadNanos;
+    private long samplesUntilProbe;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.samplesUntilProbe = (long) PROBE_MULTIPLIER * initialLimit;
+    }
+
+    /**
+     * @return true if the request may proceed; it must then be finished with exactly one of
+     * {@link #onSuccess}, {@link #onDropped} or {@link #onIgnored}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtCompletion, false);
+    }
+
+    /**
+     * The request failed in a way that points at an overloaded dependency (timeouts, 5xx).
+     */
+    public void onDropped() {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(0, inFlightAtCompletion, true);
+    }
+
+    /**
+     * Releases the slot without taking a sample, for requests whose duration says nothing about
+     * the dependency (e.g. streams paced by the client).
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double current = limit;
+        if (dropped) {
+            limit = clamp(current * BACKOFF_RATIO);
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (--samplesUntilProbe <= 0) {
+            rttNoLoadNanos = rttNanos;
+            samplesUntilProbe = (long) (PROBE_MULTIPLIER * current);
+            return;
+        }
+        if (rttNoLoadNanos == 0 || rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+            return;
+        }
+        // Far below the limit the latency says nothing about how much more could be sent
+        if (inFlightAtCompletion * 2 < current) {
+            return;
+        }
+
+        double queueSize = Math.ceil(current * (1 - (double) rttNoLoadNanos / rttNanos));
+        double threshold = Math.max(1, Math.log10(current));
+        double alpha = 3 * threshold;
+        double beta = 6 * threshold;
+        if (queueSize <= threshold) {
+            limit = clamp(current + beta);
+        } else if (queueSize < alpha) {
+            limit = clamp(current + threshold);
+        } else if (queueSize > beta) {
+            limit = clamp(current - threshold);
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
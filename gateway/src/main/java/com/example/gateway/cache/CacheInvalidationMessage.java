@@ -0,0 +1,19 @@
+package com.example.gateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Broadcast over Redis pub/sub whenever a gateway node changes a shared cache entry,
+ * so the other nodes drop their in-process copy. A {@code null} key means the whole
+ * cache was cleared.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationMessage {
+    private String origin;
+    private String cacheName;
+    private String key;
+}
@@ -0,0 +1,38 @@
+package com.example.gateway.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String origin;
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, ObjectMapper objectMapper, String channel, String origin) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.origin = origin;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void publish(String cacheName, String key) {
+        try {
+            String message = objectMapper.writeValueAsString(new CacheInvalidationMessage(origin, cacheName, key));
+            redisTemplate.convertAndSend(channel, message);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize cache invalidation for cache {} and key {}", cacheName, key, e);
+        } catch (Exception e) {
+            // The L1 TTL still bounds staleness on the other nodes if a broadcast is lost
+            log.warn("Failed to broadcast cache invalidation for cache {} and key {}", cacheName, key, e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.gateway.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the invalidation listener container in the background. The container fails hard
+ * when Redis is unreachable at start-up; the gateway should still come up in that case
+ * and pick up invalidations as soon as Redis is back.
+ */
+@Slf4j
+public class CacheInvalidationSubscriber implements SmartLifecycle, DisposableBean {
+
+    private final RedisMessageListenerContainer container;
+    private final Duration retryInterval;
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+
+    public CacheInvalidationSubscriber(RedisMessageListenerContainer container, Duration retryInterval) {
+        this.container = container;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-subscriber");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        executor.execute(this::subscribe);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+
+    private void subscribe() {
+        if (!running) {
+            return;
+        }
+        try {
+            container.start();
+            log.info("Subscribed to cache invalidation channel");
+        } catch (Exception e) {
+            log.warn("Failed to subscribe to cache invalidation channel, retrying in {}", retryInterval, e);
+            container.stop();
+            executor.schedule(this::subscribe, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
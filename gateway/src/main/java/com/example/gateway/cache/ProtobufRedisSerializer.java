@@ -0,0 +1,37 @@
+package com.example.gateway.cache;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Stores protobuf messages as their plain wire encoding, without type information; each cache
+ * that uses it holds exactly one message type.
+ */
+public class ProtobufRedisSerializer<T extends MessageLite> implements RedisSerializer<T> {
+
+    private final Parser<T> parser;
+
+    public ProtobufRedisSerializer(Parser<T> parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public byte[] serialize(T value) {
+        return value == null ? null : value.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return parser.parseFrom(bytes);
+        } catch (InvalidProtocolBufferException e) {
+            throw new SerializationException("Could not read protobuf message", e);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.gateway.cache;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Redis side of the {@code employeeById} cache. Each employee is a hash {@code <name>:entry:<id>}
+ * with its version ({@code v}) and {@link EmployeeProto.Employee} bytes ({@code d}), so a Lua
+ * script can refuse a put that is not newer than the cached version. That keeps a read which
+ * loaded an employee just before a change from overwriting the change once it is applied.
+ * <p>
+ * A delete leaves a tombstone, the same hash with only the version, for {@code tombstoneTtl}:
+ * reads miss, and a load of the deleted employee that was still in flight cannot bring it back.
+ */
+@Slf4j
+public class RedisEmployeeByIdCache implements VersionedCache {
+
+    private static final int SCAN_COUNT = 1000;
+
+    // ARGV: version, bytes, ttl millis, force
+    private static final byte[] PUT_IF_NEWER_SCRIPT = """
+            if ARGV[4] == '0' then
+                local current = redis.call('HGET', KEYS[1], 'v')
+                if current and tonumber(current) >= tonumber(ARGV[1]) then
+                    return 0
+                end
+            end
+            redis.call('HSET', KEYS[1], 'v', ARGV[1], 'd', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    // ARGV: version, tombstone ttl millis
+    private static final byte[] TOMBSTONE_SCRIPT = """
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'v', ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] DATA_FIELD = bytes("d");
+
+    private final String name;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration tombstoneTtl;
+    private final String keyPrefix;
+
+    public RedisEmployeeByIdCache(String name, String keyPrefix, StringRedisTemplate redisTemplate, Duration ttl, Duration tombstoneTtl) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.tombstoneTtl = tombstoneTtl;
+        this.keyPrefix = keyPrefix + name + ":entry:";
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisTemplate;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        EmployeeProto.Employee employee = load(key);
+        return employee != null ? new SimpleValueWrapper(employee) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        EmployeeProto.Employee employee = load(key);
+        if (employee != null && type != null && !type.isInstance(employee)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]");
+        }
+        return (T) employee;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        EmployeeProto.Employee employee = load(key);
+        if (employee != null) {
+            return (T) employee;
+        }
+        try {
+            T loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Redis is queried on the calling thread; the future is already completed when returned.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        EmployeeProto.Employee employee = load(key);
+        return employee != null ? CompletableFuture.completedFuture(employee) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        EmployeeProto.Employee employee = load(key);
+        if (employee != null) {
+            return CompletableFuture.completedFuture((T) employee);
+        }
+        return valueLoader.get().thenApply(loaded -> {
+            put(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putIfNewer(key, value);
+    }
+
+    @Override
+    public boolean putIfNewer(Object key, Object value) {
+        if (!(value instanceof EmployeeProto.Employee employee)) {
+            if (value != null) {
+                throw new IllegalArgumentException("Cache " + name + " only holds Employee values, got " + value.getClass().getName());
+            }
+            evict(key);
+            return true;
+        }
+        return put(String.valueOf(key), employee, false);
+    }
+
+    /**
+     * Stores a newly created employee whatever is cached under its id: a tombstone or an older
+     * version left by an earlier employee with the same id.
+     */
+    public void replace(EmployeeProto.Employee employee) {
+        put(employee.getId(), employee, true);
+    }
+
+    /**
+     * Drops the employee and, for {@code tombstoneTtl}, refuses versions older than {@code version}.
+     */
+    public void tombstone(String id, long version) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.scriptingCommands().eval(
+                TOMBSTONE_SCRIPT, ReturnType.INTEGER, 1,
+                key(id), bytes(Long.toString(version)), bytes(Long.toString(tombstoneTtl.toMillis()))));
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(key(String.valueOf(key))));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(key(String.valueOf(key))));
+        return deleted != null && deleted > 0;
+    }
+
+    @Override
+    public void clear() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            List<byte[]> keys = new ArrayList<>(SCAN_COUNT);
+            ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(SCAN_COUNT).build();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    keys.add(cursor.next());
+                    if (keys.size() == SCAN_COUNT) {
+                        connection.keyCommands().del(keys.toArray(byte[][]::new));
+                        keys.clear();
+                    }
+                }
+            }
+            if (!keys.isEmpty()) {
+                connection.keyCommands().del(keys.toArray(byte[][]::new));
+            }
+            return null;
+        });
+    }
+
+    private boolean put(String id, EmployeeProto.Employee employee, boolean force) {
+        Long stored = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PUT_IF_NEWER_SCRIPT, ReturnType.INTEGER, 1,
+                key(id), bytes(Long.toString(employee.getVersion())), employee.toByteArray(),
+                bytes(Long.toString(ttl.toMillis())), bytes(force ? "1" : "0")));
+        return stored != null && stored == 1L;
+    }
+
+    private EmployeeProto.Employee load(Object key) {
+        byte[] value = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.hashCommands().hGet(key(String.valueOf(key)), DATA_FIELD));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return EmployeeProto.Employee.parseFrom(value);
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Dropping unreadable entry {} from cache {}", key, name, e);
+            return null;
+        }
+    }
+
+    private byte[] key(String id) {
+        return bytes(keyPrefix + id);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.gateway.cache;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Redis side of the {@code allEmployees} cache, stored per employee instead of as one value:
+ * <ul>
+ *     <li>{@code <name>:data} - hash of employee id to {@link EmployeeProto.Employee} bytes;</li>
+ *     <li>{@code <name>:index} - sorted set of ids, all with score 0, so members are ordered by id;</li>
+ *     <li>{@code <name>:loaded} - marker that the hash holds the complete list. Without it the list
+ *     counts as a miss, even if a few entries are present;</li>
+ *     <li>{@code <name>:versions} - hash of employee id to the version in {@code data};</li>
+ *     <li>{@code <name>:changes} - hash of employee id to the last change applied through
+ *     {@link #putEmployee} or {@link #tombstoneEmployee} within {@code changeWindow}, as
+ *     {@code version:deleted:epochSeconds}.</li>
+ * </ul>
+ * A change to one employee then touches one hash field and one index member, and the list is read
+ * back with pipelined HMGETs in index order. The cache has a single entry; keys are ignored.
+ * <p>
+ * No write goes back in time: a patch is refused if it is not newer than the cached version or the
+ * last change, and a whole list, which was read from the domain service some time before it gets
+ * here, is merged with the changes of the last {@code changeWindow} instead of replacing them
+ * (see {@link #putIfNewer}). The window has to outlast the longest load of the list.
+ */
+@Slf4j
+public class RedisHashEmployeeListCache implements VersionedCache {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MERGE_ATTEMPTS = 3;
+
+    // ARGV: id, bytes, version, force, change window seconds. The change is recorded even when no
+    // list is loaded, so that a list being loaded right now cannot undo it
+    private static final byte[] PATCH_SCRIPT = """
+            local version = tonumber(ARGV[3])
+            if ARGV[4] == '0' then
+                local change = redis.call('HGET', KEYS[5], ARGV[1])
+                if change and tonumber(string.match(change, '^[^:]+')) >= version then
+                    return 0
+                end
+                local current = redis.call('HGET', KEYS[4], ARGV[1])
+                if current and tonumber(current) >= version then
+                    return 0
+                end
+            end
+            redis.call('HSET', KEYS[5], ARGV[1], ARGV[3] .. ':0:' .. redis.call('TIME')[1])
+            redis.call('EXPIRE', KEYS[5], ARGV[5])
+            if redis.call('EXISTS', KEYS[1]) == 1 then
+                redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+                redis.call('ZADD', KEYS[3], 0, ARGV[1])
+                redis.call('HSET', KEYS[4], ARGV[1], ARGV[3])
+                return 1
+            end
+            return 0
+            """.getBytes(StandardCharsets.UTF_8);
+
+    // ARGV: id, version, change window seconds
+    private static final byte[] TOMBSTONE_SCRIPT = """
+            redis.call('HSET', KEYS[4], ARGV[1], ARGV[2] .. ':1:' .. redis.call('TIME')[1])
+            redis.call('EXPIRE', KEYS[4], ARGV[3])
+            redis.call('ZREM', KEYS[2], ARGV[1])
+            redis.call('HDEL', KEYS[3], ARGV[1])
+            return redis.call('HDEL', KEYS[1], ARGV[1])
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Duration changeWindow;
+    private final byte[] dataKey;
+    private final byte[] indexKey;
+    private final byte[] loadedKey;
+    private final byte[] versionsKey;
+    private final byte[] changesKey;
+    private final byte[] refreshingKey;
+
+    public RedisHashEmployeeListCache(String name, String keyPrefix, StringRedisTemplate redisTemplate, Duration ttl,
+                                      Duration changeWindow) {
+        this.name = name;
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+        this.changeWindow = changeWindow;
+        this.dataKey = bytes(keyPrefix + name + ":data");
+        this.indexKey = bytes(keyPrefix + name + ":index");
+        this.loadedKey = bytes(keyPrefix + name + ":loaded");
+        this.versionsKey = bytes(keyPrefix + name + ":versions");
+        this.changesKey = bytes(keyPrefix + name + ":changes");
+        this.refreshingKey = bytes(keyPrefix + name + ":refreshing");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisTemplate;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        EmployeeProto.EmployeeListResponse employees = load();
+        return employees != null ? new SimpleValueWrapper(employees) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        EmployeeProto.EmployeeListResponse employees = load();
+        if (employees != null && type != null && !type.isInstance(employees)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]");
+        }
+        return (T) employees;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        EmployeeProto.EmployeeListResponse employees = load();
+        if (employees != null) {
+            return (T) employees;
+        }
+        try {
+            T loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * Redis is queried on the calling thread; the future is already completed when returned.
+     */
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        EmployeeProto.EmployeeListResponse employees = load();
+        return employees != null ? CompletableFuture.completedFuture(employees) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        EmployeeProto.EmployeeListResponse employees = load();
+        if (employees != null) {
+            return CompletableFuture.completedFuture((T) employees);
+        }
+        return valueLoader.get().thenApply(loaded -> {
+            put(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putIfNewer(key, value);
+    }
+
+    /**
+     * Stores the list merged with the changes of the last {@code changeWindow} that it does not
+     * include yet: employees deleted since are left out, employees changed or created since are
+     * taken from the cache. The whole list is replaced atomically (MULTI/EXEC), so readers see
+     * either the old or the new one. WATCH on the changes makes a change that comes in meanwhile
+     * start the merge over; if a change cannot be merged because the cache lacks the employee, the
+     * list is not stored and the next read loads it again.
+     */
+    @Override
+    public boolean putIfNewer(Object key, Object value) {
+        if (!(value instanceof EmployeeProto.EmployeeListResponse employees)) {
+            if (value != null) {
+                throw new IllegalArgumentException("Cache " + name + " only holds EmployeeListResponse values, got " + value.getClass().getName());
+            }
+            evict(key);
+            return true;
+        }
+        for (int attempt = 0; attempt < MERGE_ATTEMPTS; attempt++) {
+            MergeResult result = redisTemplate.execute((RedisCallback<MergeResult>) connection -> merge(connection, employees));
+            if (result != MergeResult.RETRY) {
+                return result == MergeResult.STORED_AS_GIVEN;
+            }
+        }
+        log.info("Not caching list {}: it kept changing while being stored", name);
+        return false;
+    }
+
+    private MergeResult merge(RedisConnection connection, EmployeeProto.EmployeeListResponse employees) {
+        connection.watch(changesKey);
+        Map<byte[], byte[]> recorded = Objects.requireNonNullElse(connection.hashCommands().hGetAll(changesKey), Map.of());
+        Long now = connection.serverCommands().time(TimeUnit.SECONDS);
+
+        Map<String, EmployeeProto.Employee> merged = new LinkedHashMap<>(employees.getEmployeesCount() * 2);
+        for (EmployeeProto.Employee employee : employees.getEmployeesList()) {
+            merged.put(employee.getId(), employee);
+        }
+        List<byte[]> expired = new ArrayList<>();
+        List<byte[]> newer = new ArrayList<>();
+        boolean asGiven = true;
+        for (Map.Entry<byte[], byte[]> entry : recorded.entrySet()) {
+            Change change = Change.parse(new String(entry.getValue(), StandardCharsets.UTF_8));
+            if (now != null && now - change.epochSeconds() > changeWindow.toSeconds()) {
+                expired.add(entry.getKey());
+                continue;
+            }
+            String id = new String(entry.getKey(), StandardCharsets.UTF_8);
+            EmployeeProto.Employee loaded = merged.get(id);
+            if (loaded != null && loaded.getVersion() >= change.version()) {
+                continue;
+            }
+            asGiven = false;
+            if (change.deleted()) {
+                merged.remove(id);
+            } else {
+                newer.add(entry.getKey());
+            }
+        }
+        if (!newer.isEmpty()) {
+            List<byte[]> cached = connection.hashCommands().hMGet(dataKey, newer.toArray(byte[][]::new));
+            for (int i = 0; i < newer.size(); i++) {
+                byte[] value = cached != null ? cached.get(i) : null;
+                EmployeeProto.Employee employee = value != null ? parse(value) : null;
+                if (employee == null) {
+                    connection.unwatch();
+                    log.info("Not caching list {}: a change since it was read is not cached", name);
+                    return MergeResult.NOT_STORED;
+                }
+                merged.put(employee.getId(), employee);
+            }
+        }
+
+        connection.multi();
+        write(connection, merged.values());
+        if (!expired.isEmpty()) {
+            connection.hashCommands().hDel(changesKey, expired.toArray(byte[][]::new));
+        }
+        List<Object> results = connection.exec();
+        if (results == null || results.isEmpty()) {
+            return MergeResult.RETRY;
+        }
+        return asGiven ? MergeResult.STORED_AS_GIVEN : MergeResult.STORED_MERGED;
+    }
+
+    private void write(RedisConnection connection, Collection<EmployeeProto.Employee> employees) {
+        connection.keyCommands().del(loadedKey, dataKey, indexKey, versionsKey);
+        Iterator<EmployeeProto.Employee> iterator = employees.iterator();
+        while (iterator.hasNext()) {
+            Map<byte[], byte[]> fields = new HashMap<>(CHUNK_SIZE * 2);
+            Map<byte[], byte[]> versions = new HashMap<>(CHUNK_SIZE * 2);
+            Set<Tuple> members = new LinkedHashSet<>(CHUNK_SIZE * 2);
+            for (int i = 0; i < CHUNK_SIZE && iterator.hasNext(); i++) {
+                EmployeeProto.Employee employee = iterator.next();
+                byte[] id = bytes(employee.getId());
+                fields.put(id, employee.toByteArray());
+                versions.put(id, bytes(Long.toString(employee.getVersion())));
+                members.add(new DefaultTuple(id, 0.0));
+            }
+            connection.hashCommands().hMSet(dataKey, fields);
+            connection.hashCommands().hMSet(versionsKey, versions);
+            connection.zSetCommands().zAdd(indexKey, members, RedisZSetCommands.ZAddArgs.empty());
+        }
+        // The entries outlive the marker a little, so a loaded marker always has data behind it
+        long entryTtl = ttl.toSeconds() + 60;
+        connection.keyCommands().expire(dataKey, entryTtl);
+        connection.keyCommands().expire(indexKey, entryTtl);
+        connection.keyCommands().expire(versionsKey, entryTtl);
+        connection.stringCommands().setEx(loadedKey, ttl.toSeconds(), bytes("1"));
+    }
+
+    /**
+     * Patches the employee into a loaded list unless the cache already has this or a newer version.
+     *
+     * @return true if a loaded list was patched
+     */
+    public boolean putEmployee(EmployeeProto.Employee employee) {
+        return patch(employee, false);
+    }
+
+    /**
+     * Patches a newly created employee in whatever the cache holds for its id: a delete or an
+     * older version left by an earlier employee with the same id.
+     *
+     * @return true if a loaded list was patched
+     */
+    public boolean replaceEmployee(EmployeeProto.Employee employee) {
+        return patch(employee, true);
+    }
+
+    private boolean patch(EmployeeProto.Employee employee, boolean force) {
+        Long patched = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                PATCH_SCRIPT, ReturnType.INTEGER, 5,
+                loadedKey, dataKey, indexKey, versionsKey, changesKey,
+                bytes(employee.getId()), employee.toByteArray(), bytes(Long.toString(employee.getVersion())),
+                bytes(force ? "1" : "0"), bytes(Long.toString(changeWindow.toSeconds()))));
+        return patched != null && patched == 1L;
+    }
+
+    /**
+     * Removes a deleted employee and, for {@code changeWindow}, keeps lists merged over it from
+     * bringing back versions older than {@code version}.
+     *
+     * @return true if the employee was part of the cached list
+     */
+    public boolean tombstoneEmployee(String id, long version) {
+        Long removed = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands().eval(
+                TOMBSTONE_SCRIPT, ReturnType.INTEGER, 4,
+                dataKey, indexKey, versionsKey, changesKey,
+                bytes(id), bytes(Long.toString(version)), bytes(Long.toString(changeWindow.toSeconds()))));
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * Removes the employee without recording a change, for when its current state is unknown.
+     *
+     * @return true if the employee was part of the cached list
+     */
+    public boolean removeEmployee(String id) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hDel(dataKey, bytes(id));
+            connection.zSetCommands().zRem(indexKey, bytes(id));
+            connection.hashCommands().hDel(versionsKey, bytes(id));
+            return null;
+        });
+        return results.get(0) instanceof Long removed && removed > 0;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * @return how long the loaded list has left, or null if no list is loaded
+     */
+    public Duration remainingTtl() {
+        Long millis = redisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().pTtl(loadedKey));
+        return millis != null && millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    /**
+     * Claims the reload of the list for {@code lease}, so that only one gateway refreshes it.
+     *
+     * @return false if another gateway holds the claim
+     */
+    public boolean tryClaimRefresh(Duration lease) {
+        Boolean claimed = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                .set(refreshingKey, bytes("1"), Expiration.from(lease), RedisStringCommands.SetOption.ifAbsent()));
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    @Override
+    public void evict(Object key) {
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> connection.keyCommands().del(loadedKey, dataKey, indexKey, versionsKey));
+    }
+
+    private EmployeeProto.EmployeeListResponse load() {
+        return redisTemplate.execute((RedisCallback<EmployeeProto.EmployeeListResponse>) this::load);
+    }
+
+    private EmployeeProto.EmployeeListResponse load(RedisConnection connection) {
+        if (!Boolean.TRUE.equals(connection.keyCommands().exists(loadedKey))) {
+            return null;
+        }
+        Set<byte[]> ids = connection.zSetCommands().zRange(indexKey, 0, -1);
+        if (ids == null) {
+            return null;
+        }
+        List<byte[]> orderedIds = new ArrayList<>(ids);
+
+        connection.openPipeline();
+        for (int from = 0; from < orderedIds.size(); from += CHUNK_SIZE) {
+            List<byte[]> chunk = orderedIds.subList(from, Math.min(from + CHUNK_SIZE, orderedIds.size()));
+            connection.hashCommands().hMGet(dataKey, chunk.toArray(byte[][]::new));
+        }
+        List<Object> chunks = connection.closePipeline();
+
+        EmployeeProto.EmployeeListResponse.Builder employees = EmployeeProto.EmployeeListResponse.newBuilder();
+        for (Object chunk : chunks) {
+            for (Object value : (List<?>) chunk) {
+                // Removed between ZRANGE and HMGET
+                if (value == null) {
+                    continue;
+                }
+                EmployeeProto.Employee employee = parse((byte[]) value);
+                if (employee == null) {
+                    return null;
+                }
+                employees.addEmployees(employee);
+            }
+        }
+        return employees.build();
+    }
+
+    private EmployeeProto.Employee parse(byte[] value) {
+        try {
+            return EmployeeProto.Employee.parseFrom(value);
+        } catch (InvalidProtocolBufferException e) {
+            log.warn("Dropping unreadable entry from cache {}", name, e);
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private enum MergeResult {
+        STORED_AS_GIVEN, STORED_MERGED, NOT_STORED, RETRY
+    }
+
+    private record Change(long version, boolean deleted, long epochSeconds) {
+
+        static Change parse(String value) {
+            String[] parts = value.split(":");
+            return new Change(Long.parseLong(parts[0]), "1".equals(parts[1]), Long.parseLong(parts[2]));
+        }
+    }
+}
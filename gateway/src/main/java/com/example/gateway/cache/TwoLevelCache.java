@@ -0,0 +1,229 @@
+package com.example.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Near cache: a bounded in-process L1 in front of the shared Redis L2. Reads are served
+ * from L1 when possible and back-filled from L2 on a miss. Every local write or eviction
+ * is applied to L2 first and then announced to the other gateway nodes, which evict
+ * their L1 copy and re-read L2 on next access.
+ * <p>
+ * If L2 is a {@link VersionedCache}, it may keep a newer value than the one put or loaded; L1 then
+ * drops its copy and takes the value from L2 on the next read.
+ * <p>
+ * Lookups are counted as {@code gateway.cache.lookups{cache, result=local_hit|remote_hit|miss}}.
+ */
+public class TwoLevelCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    public TwoLevelCache(String name, Cache<String, Object> local, org.springframework.cache.Cache remote,
+                         CacheInvalidationPublisher invalidationPublisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localHits = lookups(meterRegistry, name, "local_hit");
+        this.remoteHits = lookups(meterRegistry, name, "remote_hit");
+        this.misses = lookups(meterRegistry, name, "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            local.put(localKey(key), wrapper.get());
+        } else {
+            misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            localHits.increment();
+            return (T) value;
+        }
+        AtomicBoolean missed = new AtomicBoolean();
+        T loaded = remote.get(key, () -> {
+            missed.set(true);
+            return valueLoader.call();
+        });
+        (missed.get() ? misses : remoteHits).increment();
+        if (loaded != null && !(missed.get() && remote instanceof VersionedCache)) {
+            local.put(localKey(key), loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            localHits.increment();
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<?> remoteValue = remote.retrieve(key);
+        if (remoteValue == null) {
+            misses.increment();
+            return null;
+        }
+        return remoteValue.thenApply(result -> {
+            Object loaded = result instanceof ValueWrapper wrapper ? wrapper.get() : result;
+            if (loaded != null) {
+                remoteHits.increment();
+                local.put(localKey(key), loaded);
+            } else {
+                misses.increment();
+            }
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            localHits.increment();
+            return CompletableFuture.completedFuture((T) value);
+        }
+        AtomicBoolean missed = new AtomicBoolean();
+        return remote.retrieve(key, () -> {
+            missed.set(true);
+            return valueLoader.get();
+        }).thenApply(loaded -> {
+            (missed.get() ? misses : remoteHits).increment();
+            if (loaded != null && !(missed.get() && remote instanceof VersionedCache)) {
+                local.put(localKey(key), loaded);
+            }
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        boolean stored = true;
+        if (remote instanceof VersionedCache versioned) {
+            stored = versioned.putIfNewer(key, value);
+        } else {
+            remote.put(key, value);
+        }
+        if (value != null && stored) {
+            local.put(localKey(key), value);
+        } else {
+            local.invalidate(localKey(key));
+        }
+        invalidationPublisher.publish(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            if (value != null) {
+                local.put(localKey(key), value);
+            }
+            invalidationPublisher.publish(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.publish(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        local.invalidate(localKey(key));
+        invalidationPublisher.publish(name, localKey(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.publish(name, null);
+    }
+
+    /**
+     * For changes written to L2 behind this cache's back: drops the in-process copy here and
+     * on the other nodes, leaving the Redis entry alone.
+     */
+    public void evictLocalCopies(Object key) {
+        local.invalidate(localKey(key));
+        invalidationPublisher.publish(name, localKey(key));
+    }
+
+    /**
+     * Drops the in-process copy only; used when another node announced a change.
+     */
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("gateway.cache.lookups")
+                .description("Lookups in the two-level cache: served from the local tier, from Redis, or missed in both")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
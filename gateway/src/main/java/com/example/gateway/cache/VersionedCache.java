@@ -0,0 +1,16 @@
+package com.example.gateway.cache;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache of versioned values that refuses to go back in time: a put older than what is cached,
+ * or than a delete seen shortly before, leaves the cached state alone. {@link #put} behaves the
+ * same way; this just reports the outcome.
+ */
+public interface VersionedCache extends Cache {
+
+    /**
+     * @return true if the value was stored as given, false if (some of) the cached state was kept
+     */
+    boolean putIfNewer(Object key, Object value);
+}
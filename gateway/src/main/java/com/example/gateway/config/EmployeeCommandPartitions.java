@@ -0,0 +1,64 @@
+package com.example.gateway.config;
+
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.example.gateway.config.RabbitMQConfig.employeeChangedQueuePrefix;
+import static com.example.gateway.config.RabbitMQConfig.employeeChangedRoutingKeyPrefix;
+import static com.example.gateway.config.RabbitMQConfig.employeeCommandQueuePrefix;
+import static com.example.gateway.config.RabbitMQConfig.employeeCommandRoutingKeyPrefix;
+
+/**
+ * Maps an employee id to one of {@code gateway.commands.partitions} command queues. Every
+ * command for an id lands on the same queue; the domain service uses the same function and must be
+ * configured with the same number of partitions. The domain publishes the change events of an
+ * employee on the partition of the same number.
+ */
+public class EmployeeCommandPartitions {
+
+    private final int count;
+
+    public EmployeeCommandPartitions(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("gateway.commands.partitions must be greater than zero");
+        }
+        this.count = count;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(String employeeId) {
+        return Math.floorMod(canonical(employeeId).hashCode(), count);
+    }
+
+    public String routingKey(String employeeId) {
+        return employeeCommandRoutingKeyPrefix + partitionOf(employeeId);
+    }
+
+    public static String queueName(int partition) {
+        return employeeCommandQueuePrefix + partition;
+    }
+
+    public static String routingKey(int partition) {
+        return employeeCommandRoutingKeyPrefix + partition;
+    }
+
+    public static String changedQueueName(int partition) {
+        return employeeChangedQueuePrefix + partition;
+    }
+
+    public static String changedRoutingKey(int partition) {
+        return employeeChangedRoutingKeyPrefix + partition;
+    }
+
+    // Upper-case or otherwise non-canonical spellings of a UUID must not end up on another partition
+    private static String canonical(String employeeId) {
+        try {
+            return UUID.fromString(employeeId.trim()).toString();
+        } catch (IllegalArgumentException e) {
+            return employeeId.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.gateway.config;
+
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import com.example.gateway.api.limit.ConcurrencyLimitClientInterceptor;
+import com.example.gateway.api.limit.VegasLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class GrpcClientConfig {
+
+    public static final String employeeServiceChannelName = "employeeService";
+
+    @Value("${gateway.grpc.hedging-delay:50ms}")
+    private Duration hedgingDelay;
+
+    @Value("${gateway.grpc.hedging-enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${gateway.grpc.retry-throttling.max-tokens:10}")
+    private double retryThrottlingMaxTokens;
+
+    @Value("${gateway.grpc.retry-throttling.token-ratio:0.1}")
+    private double retryThrottlingTokenRatio;
+
+    @Value("${gateway.grpc.outlier-detection.interval:10s}")
+    private Duration outlierDetectionInterval;
+
+    @Value("${gateway.grpc.outlier-detection.base-ejection-time:30s}")
+    private Duration baseEjectionTime;
+
+    /**
+     * Spreads calls over every resolved domain replica (round robin), skipping replicas whose
+     * gRPC health service reports NOT_SERVING. Replicas with an unusually high failure rate are
+     * ejected for a while (outlier detection). Calls that run into the read deadline count as
+     * failures, so slow replicas are ejected as well. With {@code hedging-enabled}, single-employee
+     * and page reads are hedged: if there is no answer after {@code hedging-delay}, the call is sent
+     * to a second replica and the first reply wins. Only these idempotent reads are hedged, never
+     * commands or streams.
+     * <p>
+     * Hedges are throttled: every failed attempt costs a token, every success returns
+     * {@code token-ratio} of one, and no hedge is sent while fewer than half of
+     * {@code max-tokens} are left, so a struggling domain does not get extra load on top.
+     * <p>
+     * With the limiter enabled, every call first needs a slot of the read concurrency limit.
+     */
+    @Bean
+    public GrpcChannelConfigurer employeeServiceChannelConfigurer(ObjectProvider<ConcurrencyLimitClientInterceptor> concurrencyLimit) {
+        return (builder, name) -> {
+            if (employeeServiceChannelName.equals(name)) {
+                builder.defaultServiceConfig(employeeServiceConfig()).enableRetry();
+                concurrencyLimit.ifAvailable(builder::intercept);
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.limiter.enabled", havingValue = "true")
+    public ConcurrencyLimitClientInterceptor concurrencyLimitClientInterceptor(
+            @Value("${gateway.limiter.read.initial-limit:50}") int readInitialLimit,
+            @Value("${gateway.limiter.read.min-limit:10}") int readMinLimit,
+            @Value("${gateway.limiter.read.max-limit:500}") int readMaxLimit,
+            MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitClientInterceptor(new VegasLimit(readInitialLimit, readMinLimit, readMaxLimit), meterRegistry);
+    }
+
+    // Service config JSON as maps; gRPC expects numbers as Double and durations as strings
+    private Map<String, Object> employeeServiceConfig() {
+        Map<String, Object> outlierDetection = Map.of(
+                "interval", seconds(outlierDetectionInterval),
+                "baseEjectionTime", seconds(baseEjectionTime),
+                "maxEjectionPercent", 50.0,
+                "successRateEjection", Map.of(
+                        "stdevFactor", 1900.0,
+                        "enforcementPercentage", 100.0,
+                        "minimumHosts", 3.0,
+                        "requestVolume", 50.0),
+                "failurePercentageEjection", Map.of(
+                        "threshold", 50.0,
+                        "enforcementPercentage", 100.0,
+                        "minimumHosts", 2.0,
+                        "requestVolume", 20.0),
+                "childPolicy", List.of(Map.of("round_robin", Map.of())));
+
+        // Idempotent reads only
+        Map<String, Object> hedgedReads = Map.of(
+                "name", List.of(
+                        method("GetEmployee"),
+                        method("BatchGetEmployees"),
+                        method("ListEmployeePage")),
+                "hedgingPolicy", Map.of(
+                        "maxAttempts", 2.0,
+                        "hedgingDelay", seconds(hedgingDelay),
+                        "nonFatalStatusCodes", List.of("UNAVAILABLE")));
+
+        return Map.of(
+                "loadBalancingConfig", List.of(Map.of("outlier_detection_experimental", outlierDetection)),
+                "healthCheckConfig", Map.of("serviceName", EmployeeServiceGrpc.SERVICE_NAME),
+                "methodConfig", hedgingEnabled ? List.of(hedgedReads) : List.of(),
+                "retryThrottling", Map.of(
+                        "maxTokens", retryThrottlingMaxTokens,
+                        "tokenRatio", retryThrottlingTokenRatio));
+    }
+
+    private static Map<String, Object> method(String method) {
+        return Map.of("service", EmployeeServiceGrpc.SERVICE_NAME, "method", method);
+    }
+
+    private static String seconds(Duration duration) {
+        return duration.toMillis() / 1000.0 + "s";
+    }
+}
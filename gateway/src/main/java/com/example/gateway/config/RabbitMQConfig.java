@@ -1,28 +1,56 @@
 package com.example.gateway.config;
 
-import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.DirectExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 public class RabbitMQConfig {
 
-    public static final String employeePostRequestQueueName = "employeePostRequestQueue";
-    public static final String employeePutRequestQueueName = "employeePutRequestQueue";
-    public static final String employeeDeleteRequestQueueName = "employeeDeleteRequestQueue";
-
+    // Command types, carried in the AMQP type property; the routing key only selects the partition
     public static final String employeePostRequestRoutingKey = "employee.post";
     public static final String employeePutRequestRoutingKey = "employee.put";
     public static final String employeeDeleteRequestRoutingKey = "employee.delete";
 
     public static final String directExchangeName = "employeeExchange";
 
+    // Partitioned command queues: employeeCommandQueue.<n>, bound with employee.command.<n>
+    public static final String employeeCommandQueuePrefix = "employeeCommandQueue.";
+    public static final String employeeCommandRoutingKeyPrefix = "employee.command.";
+
+    // Stamped on every command: when it was sent (epoch millis) and an id to follow it through the logs
+    public static final String publishedAtHeader = "x-published-at";
+    public static final String correlationIdHeader = "x-correlation-id";
+
+    // Commands encoded as EmployeeProto messages; anything else is the legacy JSON format
+    public static final String protobufContentType = "application/x-protobuf";
+
+    public static final String employeeEventExchangeName = "employeeEventExchange";
+    // Partitioned like the commands: gatewayEmployeeChangedQueue.<n>, bound with employee.changed.<n>
+    public static final String employeeChangedQueuePrefix = "gatewayEmployeeChangedQueue.";
+    public static final String employeeChangedRoutingKeyPrefix = "employee.changed.";
+
+    public static final String employeeChangedListenerContainerFactoryName = "employeeChangedListenerContainerFactory";
+
+    @Value("${gateway.commands.partitions:8}")
+    private int commandPartitions;
+
     @Bean
     public MessageConverter messageConverter() {
         return new Jackson2JsonMessageConverter();
@@ -33,33 +61,64 @@ public class RabbitMQConfig {
         return new DirectExchange(directExchangeName);
     }
 
-    @Bean("employeePostRequestQueue")
-    public Queue employeePostRequestQueue() {
-        return new Queue(employeePostRequestQueueName, true);
+    /**
+     * For the change event listeners, one per partition. They stay on platform threads in the
+     * virtual-thread mode as well: there are only a few of them, they live as long as the
+     * application, and on a busy CPU a virtual thread has to queue for a carrier again after every
+     * Redis call, which let the cache updates fall behind the writes.
+     */
+    @Bean(employeeChangedListenerContainerFactoryName)
+    public SimpleRabbitListenerContainerFactory employeeChangedListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                                       ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setTaskExecutor(new SimpleAsyncTaskExecutor("employee-changed-"));
+        return factory;
     }
 
-    @Bean("employeePutRequestQueue")
-    public Queue employeePutRequestQueue() {
-        return new Queue(employeePutRequestQueueName, true);
-    }
-
-    @Bean("employeeDeleteRequestQueue")
-    public Queue employeeDeleteRequestQueue() {
-        return new Queue(employeeDeleteRequestQueueName, true);
+    @Bean
+    public EmployeeCommandPartitions employeeCommandPartitions() {
+        return new EmployeeCommandPartitions(commandPartitions);
     }
 
+    /**
+     * Declared on both sides so that commands are not dropped when the gateway starts before the
+     * domain service. The arguments have to match the domain's declaration exactly.
+     */
     @Bean
-    public Binding postRequestBinding(@Qualifier("employeePostRequestQueue") Queue employeePostRequestQueue, DirectExchange exchange) {
-        return BindingBuilder.bind(employeePostRequestQueue).to(exchange).with(employeePostRequestRoutingKey);
+    public Declarables employeeCommandQueues(EmployeeCommandPartitions partitions, DirectExchange exchange) {
+        List<Declarable> declarables = new ArrayList<>(partitions.count() * 2);
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            Queue queue = QueueBuilder.durable(EmployeeCommandPartitions.queueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(EmployeeCommandPartitions.routingKey(partition)));
+        }
+        return new Declarables(declarables);
     }
 
     @Bean
-    public Binding putRequestBinding(@Qualifier("employeePutRequestQueue") Queue employeePutRequestQueue, DirectExchange exchange) {
-        return BindingBuilder.bind(employeePutRequestQueue).to(exchange).with(employeePutRequestRoutingKey);
+    public TopicExchange employeeEventExchange() {
+        return new TopicExchange(employeeEventExchangeName);
     }
 
+    /**
+     * Shared by all gateway replicas: the caches live in Redis, so each change only has to be
+     * applied once. The domain routes the changes of an employee to the partition of its commands.
+     * Partitions are consumed in parallel; a single active consumer per partition keeps the changes
+     * of one employee in publish order.
+     */
     @Bean
-    public Binding deleteRequestBinding(@Qualifier("employeeDeleteRequestQueue") Queue employeeDeleteRequestQueue, DirectExchange exchange) {
-        return BindingBuilder.bind(employeeDeleteRequestQueue).to(exchange).with(employeeDeleteRequestRoutingKey);
+    public Declarables employeeChangedQueues(EmployeeCommandPartitions partitions, TopicExchange employeeEventExchange) {
+        List<Declarable> declarables = new ArrayList<>(partitions.count() * 2);
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            Queue queue = QueueBuilder.durable(EmployeeCommandPartitions.changedQueueName(partition))
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(employeeEventExchange).with(EmployeeCommandPartitions.changedRoutingKey(partition)));
+        }
+        return new Declarables(declarables);
     }
-}
\ No newline at end of file
+}
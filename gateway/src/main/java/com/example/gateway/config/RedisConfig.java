@@ -1,17 +1,39 @@
 package com.example.gateway.config;
 
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.cache.CacheInvalidationPublisher;
+import com.example.gateway.cache.CacheInvalidationSubscriber;
+import com.example.gateway.cache.ProtobufRedisSerializer;
+import com.example.gateway.cache.RedisEmployeeByIdCache;
+import com.example.gateway.cache.RedisHashEmployeeListCache;
+import com.example.gateway.cache.TwoLevelCacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
 
 @Configuration
 @EnableCaching
@@ -23,12 +45,26 @@ public class RedisConfig {
     @Value("${spring.data.redis.port}")
     private int redisPort;
 
+    @Value("${gateway.cache.local.max-size:10000}")
+    private long localCacheMaxSize;
+
+    @Value("${gateway.cache.local.ttl:30s}")
+    private Duration localCacheTtl;
+
+    @Value("${gateway.cache.tombstone-ttl:60s}")
+    private Duration tombstoneTtl;
+
     public static final String REDIS_ALL_RECIPES_CACHE_KEY = "allRecipes";
     public static final String REDIS_RECIPE_BY_ID_CACHE_KEY = "recipeById";
 
     public static final String REDIS_ALL_EMPLOYEES_CACHE_KEY = "allEmployees"; // New constant
     public static final String REDIS_EMPLOYEE_BY_ID_CACHE_KEY = "employeeById"; // New constant
 
+    private static final String PROTOBUF_CACHE_PREFIX = "pb:";
+
+    public static final String CACHE_INVALIDATION_CHANNEL = "gateway:cache-invalidation";
+    private static final Duration INVALIDATION_RETRY_INTERVAL = Duration.ofSeconds(5);
+
     @Bean
     public LettuceConnectionFactory redisConnectionFactory() {
         if (redisHost == null || redisHost.isBlank() || redisPort <= 0) {
@@ -39,7 +75,7 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisCacheManager cacheManager(LettuceConnectionFactory redisConnectionFactory) {
+    public RedisCacheManager redisCacheManager(LettuceConnectionFactory redisConnectionFactory) {
         RedisCacheConfiguration cacheConfig = defaultCacheConfig(Duration.ofMinutes(10))
                 .disableCachingNullValues();
 
@@ -47,11 +83,84 @@ public class RedisConfig {
                 .cacheDefaults(cacheConfig)
                 .withCacheConfiguration(REDIS_ALL_RECIPES_CACHE_KEY, defaultCacheConfig(Duration.ofMinutes(10)))
                 .withCacheConfiguration(REDIS_RECIPE_BY_ID_CACHE_KEY, defaultCacheConfig(Duration.ofMinutes(10)))
-                .withCacheConfiguration(REDIS_ALL_EMPLOYEES_CACHE_KEY, defaultCacheConfig(Duration.ofMinutes(10))) // New cache config
-                .withCacheConfiguration(REDIS_EMPLOYEE_BY_ID_CACHE_KEY, defaultCacheConfig(Duration.ofMinutes(10))) // New cache config
+                .withCacheConfiguration(REDIS_ALL_EMPLOYEES_CACHE_KEY,
+                        protobufCacheConfig(Duration.ofMinutes(10), EmployeeProto.EmployeeListResponse.parser()))
                 .build();
     }
 
+    /**
+     * Keeps {@code allEmployees} as one hash field per employee, so a change rewrites a single
+     * entry instead of the whole list. {@code gateway.cache.employee-list-layout=value} goes back
+     * to one serialized value per list.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.cache.employee-list-layout", havingValue = "hash", matchIfMissing = true)
+    public RedisHashEmployeeListCache employeeListHashCache(StringRedisTemplate stringRedisTemplate) {
+        return new RedisHashEmployeeListCache(REDIS_ALL_EMPLOYEES_CACHE_KEY, PROTOBUF_CACHE_PREFIX, stringRedisTemplate,
+                Duration.ofMinutes(10), tombstoneTtl);
+    }
+
+    /**
+     * Keeps {@code employeeById} entries with their version, so that only newer versions replace them.
+     */
+    @Bean
+    public RedisEmployeeByIdCache employeeByIdCache(StringRedisTemplate stringRedisTemplate) {
+        return new RedisEmployeeByIdCache(REDIS_EMPLOYEE_BY_ID_CACHE_KEY, PROTOBUF_CACHE_PREFIX, stringRedisTemplate,
+                Duration.ofMinutes(10), tombstoneTtl);
+    }
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper) {
+        return new CacheInvalidationPublisher(stringRedisTemplate, objectMapper, CACHE_INVALIDATION_CHANNEL, UUID.randomUUID().toString());
+    }
+
+    @Bean
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             ObjectProvider<RedisHashEmployeeListCache> employeeListHashCache,
+                                             RedisEmployeeByIdCache employeeByIdCache,
+                                             CacheInvalidationPublisher cacheInvalidationPublisher,
+                                             ObjectMapper objectMapper,
+                                             MeterRegistry meterRegistry) {
+        return new TwoLevelCacheManager(remoteCacheManager(redisCacheManager, employeeListHashCache.getIfAvailable(), employeeByIdCache), cacheInvalidationPublisher, objectMapper, meterRegistry,
+                localCacheMaxSize, localCacheTtl);
+    }
+
+    @Bean
+    public CacheInvalidationSubscriber cacheInvalidationSubscriber(LettuceConnectionFactory redisConnectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        // Deliberately not a bean of its own: the subscriber decides when to start it
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.setRecoveryInterval(INVALIDATION_RETRY_INTERVAL.toMillis());
+        container.addMessageListener(cacheManager, new ChannelTopic(CACHE_INVALIDATION_CHANNEL));
+        container.afterPropertiesSet();
+        return new CacheInvalidationSubscriber(container, INVALIDATION_RETRY_INTERVAL);
+    }
+
+    private static CacheManager remoteCacheManager(RedisCacheManager redisCacheManager, RedisHashEmployeeListCache employeeListHashCache,
+                                                   RedisEmployeeByIdCache employeeByIdCache) {
+        SimpleCacheManager versionedCacheManager = new SimpleCacheManager();
+        versionedCacheManager.setCaches(employeeListHashCache != null
+                ? List.of(employeeListHashCache, employeeByIdCache)
+                : List.of(employeeByIdCache));
+        versionedCacheManager.afterPropertiesSet();
+        // The versioned caches shadow the RedisCacheManager's caches of the same name
+        return new CompositeCacheManager(versionedCacheManager, redisCacheManager);
+    }
+
+    /**
+     * The employee caches hold protobuf messages as they came off the wire. Their keys get a
+     * {@code pb:} prefix so entries written in the old JSON format are never read back.
+     */
+    private <T extends MessageLite> RedisCacheConfiguration protobufCacheConfig(Duration ttl, Parser<T> parser) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues()
+                .prefixCacheNameWith(PROTOBUF_CACHE_PREFIX)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new ProtobufRedisSerializer<>(parser)));
+    }
+
     private RedisCacheConfiguration defaultCacheConfig(Duration ttl) {
         return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(ttl)
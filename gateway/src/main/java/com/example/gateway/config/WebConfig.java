@@ -0,0 +1,71 @@
+package com.example.gateway.config;
+
+import com.example.gateway.api.codec.EmployeeJsonHttpMessageConverter;
+import com.example.gateway.api.codec.EmployeeProtobufHttpMessageConverter;
+import com.example.gateway.api.codec.ResponseCompressionFilter;
+import com.example.gateway.api.limit.ConcurrencyLimitFilter;
+import com.example.gateway.api.limit.VegasLimit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public WebConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of the Jackson converter so employee bodies never go through databind
+        converters.add(0, new EmployeeJsonHttpMessageConverter(objectMapper.getFactory()));
+        // After the JSON one, which therefore stays the default for Accept: */*
+        converters.add(1, new EmployeeProtobufHttpMessageConverter());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.compression.enabled", havingValue = "true")
+    public ResponseCompressionFilter responseCompressionFilter(
+            @Value("${gateway.compression.mime-types:application/json,application/x-ndjson,application/x-protobuf}") List<String> mimeTypes,
+            @Value("${gateway.compression.min-response-size:2KB}") DataSize minResponseSize,
+            @Value("${gateway.compression.zstd-level:3}") int zstdLevel) {
+        return new ResponseCompressionFilter(mimeTypes.stream().map(MimeTypeUtils::parseMimeType).toList(),
+                (int) minResponseSize.toBytes(), zstdLevel);
+    }
+
+    /**
+     * Only in front of the writes of {@code EmployeeController}; bulk imports and actuator endpoints
+     * are not limited, reads are limited where they call the domain ({@link GrpcClientConfig}). Runs
+     * after the request metrics filter so that rejections show up there as 503s.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.limiter.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${gateway.limiter.write.initial-limit:20}") int writeInitialLimit,
+            @Value("${gateway.limiter.write.min-limit:5}") int writeMinLimit,
+            @Value("${gateway.limiter.write.max-limit:200}") int writeMaxLimit,
+            @Value("${gateway.limiter.retry-after:1s}") Duration retryAfter,
+            MeterRegistry meterRegistry) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new VegasLimit(writeInitialLimit, writeMinLimit, writeMaxLimit), retryAfter, meterRegistry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/v1/employees/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.gateway.event;
+
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Emitted by the domain service after a change to an employee has been committed.
+ * {@code employee} holds the committed state and is null for DELETED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+
+    public enum Operation {
+        CREATED, UPDATED, DELETED
+    }
+
+    private String id;
+    private Operation operation;
+    private long version;
+    private EmployeeResponseDTO employee;
+}
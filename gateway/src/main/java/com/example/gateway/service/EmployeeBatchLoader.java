@@ -0,0 +1,145 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.gateway.config.GrpcClientConfig.employeeServiceChannelName;
+
+/**
+ * DataLoader-style collector for single-id lookups. Ids requested within {@code gateway.read.batch-window}
+ * of the first one are sent to the domain service as one BatchGetEmployees call; a batch is sent
+ * early once it reaches {@code gateway.read.max-batch-size} ids. Ids the domain service does not
+ * know fail with NOT_FOUND.
+ */
+@Component
+@Slf4j
+public class EmployeeBatchLoader implements DisposableBean {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-batch-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<EmployeeProto.Employee>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    @GrpcClient(employeeServiceChannelName)
+    private EmployeeServiceGrpc.EmployeeServiceFutureStub employeeServiceFutureStub;
+
+    @Value("${gateway.read.budget:2s}")
+    private Duration readBudget;
+
+    @Value("${gateway.read.batch-window:2ms}")
+    private Duration batchWindow;
+
+    @Value("${gateway.read.max-batch-size:100}")
+    private int maxBatchSize;
+
+    public CompletableFuture<EmployeeProto.Employee> load(String id) {
+        CompletableFuture<EmployeeProto.Employee> result;
+        Map<String, CompletableFuture<EmployeeProto.Employee>> fullBatch = null;
+        synchronized (lock) {
+            result = pending.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return result;
+    }
+
+    private void flush() {
+        Map<String, CompletableFuture<EmployeeProto.Employee>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // Callers must hold the lock
+    private Map<String, CompletableFuture<EmployeeProto.Employee>> takePending() {
+        Map<String, CompletableFuture<EmployeeProto.Employee>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<String, CompletableFuture<EmployeeProto.Employee>> batch) {
+        log.info("Fetching batch of {} employees via gRPC", batch.size());
+        var request = EmployeeProto.BatchGetEmployeesRequest.newBuilder()
+                .addAllIds(batch.keySet())
+                .build();
+        try {
+            GrpcFutures.toCompletableFuture(employeeServiceFutureStub
+                            .withDeadlineAfter(readBudget.toMillis(), TimeUnit.MILLISECONDS)
+                            .batchGetEmployees(request))
+                    .whenComplete((response, error) -> {
+                        if (error != null) {
+                            batch.values().forEach(future -> future.completeExceptionally(error));
+                        } else {
+                            complete(batch, response);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void complete(Map<String, CompletableFuture<EmployeeProto.Employee>> batch, EmployeeProto.BatchGetEmployeesResponse response) {
+        Map<String, EmployeeProto.Employee> found = response.getEmployeesList().stream()
+                .collect(Collectors.toMap(EmployeeProto.Employee::getId, Function.identity(), (first, second) -> first));
+        batch.forEach((id, future) -> {
+            EmployeeProto.Employee employee = found.get(canonicalId(id));
+            if (employee != null) {
+                future.complete(employee);
+            } else {
+                future.completeExceptionally(Status.NOT_FOUND
+                        .withDescription("Employee not found with ID: " + id)
+                        .asRuntimeException());
+            }
+        });
+    }
+
+    // The domain service answers with canonical (lower-case) UUIDs whatever the caller sent
+    private static String canonicalId(String id) {
+        try {
+            return UUID.fromString(id).toString();
+        } catch (IllegalArgumentException e) {
+            return id;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+}
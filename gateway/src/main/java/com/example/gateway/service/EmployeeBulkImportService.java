@@ -0,0 +1,308 @@
+package com.example.gateway.service;
+
+import com.example.gateway.api.dto.BulkImportResultDTO;
+import com.example.gateway.api.dto.BulkRowResultDTO;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.example.gateway.config.EmployeeCommandPartitions;
+import com.example.gateway.config.RabbitMQConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Imports employees from an NDJSON or CSV body. The body is read line by line and each row is
+ * validated on its own; valid rows are published as POST commands in batches, and every batch
+ * waits for publisher confirms before the next one is read. Memory use is therefore bounded
+ * by the batch size, not by the size of the upload. Lines longer than
+ * {@code gateway.bulk.max-line-length} are rejected without being buffered in full.
+ */
+@Service
+@Slf4j
+public class EmployeeBulkImportService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final EmployeeCommandCodec commandCodec;
+    private final EmployeeCommandPartitions commandPartitions;
+
+    @Value("${gateway.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${gateway.bulk.confirm-timeout:10s}")
+    private Duration confirmTimeout;
+
+    @Value("${gateway.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Value("${gateway.bulk.max-line-length:65536}")
+    private int maxLineLength;
+
+    public EmployeeBulkImportService(RabbitTemplate rabbitTemplate, ObjectMapper objectMapper, EmployeeCommandCodec commandCodec,
+                                     EmployeeCommandPartitions commandPartitions) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.commandCodec = commandCodec;
+        this.commandPartitions = commandPartitions;
+    }
+
+    public BulkImportResultDTO importEmployees(InputStream body, Charset charset, Format format) throws IOException {
+        Result result = new Result();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        Map<String, Integer> csvColumns = null;
+
+        LineReader reader = new LineReader(new BufferedReader(new InputStreamReader(body, charset)), maxLineLength);
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (reader.isTooLong()) {
+                if (format == Format.CSV && csvColumns == null) {
+                    throw new IllegalArgumentException("CSV header is longer than " + maxLineLength + " characters");
+                }
+                result.total++;
+                result.reject(row, null, "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+
+            result.total++;
+            String id = null;
+            try {
+                EmployeeRequestDTO employee = format == Format.NDJSON
+                        ? objectMapper.readValue(line, EmployeeRequestDTO.class)
+                        : fromCsv(csvColumns, parseCsvLine(line));
+                id = employee.getId();
+                validate(employee);
+                if (id == null || id.isBlank()) {
+                    id = UUID.randomUUID().toString();
+                    employee.setId(id);
+                }
+                batch.add(new PendingRow(row, id, commandCodec.createMessage(employee)));
+            } catch (Exception e) {
+                result.reject(row, id, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                publish(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            publish(batch, result);
+        }
+
+        log.info("Bulk import finished: {} rows, {} accepted, {} rejected", result.total, result.accepted, result.rejected);
+        return result.toDto();
+    }
+
+    private void publish(List<PendingRow> batch, Result result) {
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingRow pending : batch) {
+                    operations.send(
+                            RabbitMQConfig.directExchangeName,
+                            commandPartitions.routingKey(pending.id()),
+                            pending.message()
+                    );
+                }
+                operations.waitForConfirmsOrDie(confirmTimeout.toMillis());
+                return null;
+            });
+            result.accepted += batch.size();
+        } catch (Exception e) {
+            log.error("Batch of {} employees was not confirmed by RabbitMQ", batch.size(), e);
+            for (PendingRow pending : batch) {
+                result.reject(pending.row(), pending.id(), "Not confirmed by broker: " + e.getMessage());
+            }
+        }
+    }
+
+    static void validate(EmployeeRequestDTO employee) {
+        if (employee.getId() != null && !employee.getId().isBlank()) {
+            UUID.fromString(employee.getId());
+        }
+        if (employee.getName() == null || employee.getName().isBlank()) {
+            throw new IllegalArgumentException("Employee name cannot be null or empty");
+        }
+        if (employee.getPosition() == null || employee.getPosition().isBlank()) {
+            throw new IllegalArgumentException("Employee position cannot be null or empty");
+        }
+        if (employee.getSalary() <= 0) {
+            throw new IllegalArgumentException("Employee salary must be greater than zero");
+        }
+        if (employee.getHireDate() == null) {
+            throw new IllegalArgumentException("Employee hireDate cannot be null");
+        }
+        LocalDate.parse(employee.getHireDate());
+    }
+
+    private Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "position", "salary", "hiredate")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private EmployeeRequestDTO fromCsv(Map<String, Integer> columns, List<String> values) {
+        String salary = column(columns, values, "salary");
+        return EmployeeRequestDTO.builder()
+                .id(column(columns, values, "id"))
+                .name(column(columns, values, "name"))
+                .position(column(columns, values, "position"))
+                .salary(salary == null || salary.isBlank() ? 0 : Double.parseDouble(salary.trim()))
+                .hireDate(column(columns, values, "hiredate"))
+                .build();
+    }
+
+    private String column(Map<String, Integer> columns, List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    /**
+     * Splits one RFC 4180 record. Quoted fields may contain commas and doubled quotes;
+     * line breaks inside quoted fields are not supported.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingRow(long row, String id, Message message) {
+    }
+
+    /**
+     * Reads lines like {@link BufferedReader#readLine()}, but keeps at most {@code maxLength}
+     * characters of each; the rest of a longer line is skipped and {@link #isTooLong()} is set.
+     */
+    static final class LineReader {
+
+        private final BufferedReader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong;
+
+        LineReader(BufferedReader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return the line without its terminator, cut off after {@code maxLength} characters,
+         * or {@code null} at the end of the input
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1 && c != '\n' && c != '\r') {
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+                c = reader.read();
+            }
+            if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+            }
+            return line.toString();
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+    }
+
+    private final class Result {
+        private long total;
+        private long accepted;
+        private long rejected;
+        private final List<BulkRowResultDTO> errors = new ArrayList<>();
+
+        private void reject(long row, String id, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BulkRowResultDTO(row, id, message));
+            }
+        }
+
+        private BulkImportResultDTO toDto() {
+            return BulkImportResultDTO.builder()
+                    .total(total)
+                    .accepted(accepted)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .errorsTruncated(rejected > errors.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.example.gateway.cache.RedisEmployeeByIdCache;
+import com.example.gateway.cache.RedisHashEmployeeListCache;
+import com.example.gateway.cache.TwoLevelCache;
+import com.example.gateway.config.EmployeeCommandPartitions;
+import com.example.gateway.event.EmployeeChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+
+import static com.example.gateway.config.RabbitMQConfig.employeeChangedListenerContainerFactoryName;
+import static com.example.gateway.config.RedisConfig.REDIS_ALL_EMPLOYEES_CACHE_KEY;
+import static com.example.gateway.config.RedisConfig.REDIS_EMPLOYEE_BY_ID_CACHE_KEY;
+
+/**
+ * Keeps the employee caches in line with committed changes. Only the affected
+ * {@code employeeById} entry is touched, and with the hash layout the cached list is patched in
+ * place rather than dropped, so it stays warm under a steady write rate.
+ * <p>
+ * Each partition of the change events gets a listener container of its own, so partitions are
+ * applied in parallel while the changes of one employee arrive in order. That is what the
+ * unversioned steps rely on: a create replacing whatever is cached, and the evict of a change
+ * without state. The list stored as one value cannot be patched by several consumers at once
+ * without losing changes, so with that layout it is dropped and loaded again by the next read.
+ * <p>
+ * Both caches compare versions in Redis: a change older than what is cached is ignored, and a
+ * delete leaves a tombstone for a while so that reads that loaded the employee just before the
+ * delete cannot put it back. A created employee replaces whatever is cached under its id, since
+ * an employee deleted before may have used the same id with higher versions.
+ */
+@Service
+@Slf4j
+public class EmployeeCacheUpdater implements RabbitListenerConfigurer {
+
+    private final CacheManager cacheManager;
+    private final ObjectProvider<RedisHashEmployeeListCache> employeeListHashCache;
+    private final RedisEmployeeByIdCache employeeByIdCache;
+    private final EmployeeCommandPartitions partitions;
+    private final MessageConverter messageConverter;
+    private final RabbitListenerContainerFactory<?> listenerContainerFactory;
+
+    public EmployeeCacheUpdater(CacheManager cacheManager, ObjectProvider<RedisHashEmployeeListCache> employeeListHashCache,
+                                RedisEmployeeByIdCache employeeByIdCache, EmployeeCommandPartitions partitions,
+                                MessageConverter messageConverter,
+                                @Qualifier(employeeChangedListenerContainerFactoryName) RabbitListenerContainerFactory<?> listenerContainerFactory) {
+        this.cacheManager = cacheManager;
+        this.employeeListHashCache = employeeListHashCache;
+        this.employeeByIdCache = employeeByIdCache;
+        this.partitions = partitions;
+        this.messageConverter = messageConverter;
+        this.listenerContainerFactory = listenerContainerFactory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("employeeChanged-" + partition);
+            endpoint.setQueueNames(EmployeeCommandPartitions.changedQueueName(partition));
+            endpoint.setMessageListener((MessageListener) this::onMessage);
+            registrar.registerEndpoint(endpoint, listenerContainerFactory);
+        }
+    }
+
+    // The type header names the domain's class; the JSON is read into the gateway's own
+    private void onMessage(Message message) {
+        message.getMessageProperties().setInferredArgumentType(EmployeeChangedEvent.class);
+        onEmployeeChanged((EmployeeChangedEvent) messageConverter.fromMessage(message));
+    }
+
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        log.info("Received {} event for Employee ID: {} (version {})", event.getOperation(), event.getId(), event.getVersion());
+        try {
+            switch (event.getOperation()) {
+                case CREATED, UPDATED -> {
+                    if (event.getEmployee() == null) {
+                        evict(event.getId());
+                    } else {
+                        refresh(toProto(event.getEmployee(), event.getVersion()), event.getOperation() == EmployeeChangedEvent.Operation.CREATED);
+                    }
+                }
+                case DELETED -> tombstone(event.getId(), event.getVersion());
+            }
+        } catch (Exception e) {
+            log.error("Failed to apply {} event for Employee ID: {}, dropping cached list", event.getOperation(), event.getId(), e);
+            clearAllEmployees();
+        }
+    }
+
+    private void refresh(EmployeeProto.Employee employee, boolean created) {
+        if (created) {
+            employeeByIdCache.replace(employee);
+        } else {
+            employeeByIdCache.putIfNewer(employee.getId(), employee);
+        }
+        evictLocalCopies(REDIS_EMPLOYEE_BY_ID_CACHE_KEY, employee.getId());
+
+        RedisHashEmployeeListCache hashCache = employeeListHashCache.getIfAvailable();
+        if (hashCache == null) {
+            evictAllEmployees();
+        } else if (created ? hashCache.replaceEmployee(employee) : hashCache.putEmployee(employee)) {
+            // Only the one hash field changes in Redis; the nodes just drop their in-process list
+            evictLocalCopies(REDIS_ALL_EMPLOYEES_CACHE_KEY, SimpleKey.EMPTY);
+        }
+    }
+
+    private void tombstone(String id, long version) {
+        employeeByIdCache.tombstone(id, version);
+        evictLocalCopies(REDIS_EMPLOYEE_BY_ID_CACHE_KEY, id);
+
+        RedisHashEmployeeListCache hashCache = employeeListHashCache.getIfAvailable();
+        if (hashCache == null) {
+            evictAllEmployees();
+        } else if (hashCache.tombstoneEmployee(id, version)) {
+            evictLocalCopies(REDIS_ALL_EMPLOYEES_CACHE_KEY, SimpleKey.EMPTY);
+        }
+    }
+
+    /**
+     * For a change whose state the event does not carry: drops the employee from both caches.
+     */
+    private void evict(String id) {
+        Cache cacheById = cacheManager.getCache(REDIS_EMPLOYEE_BY_ID_CACHE_KEY);
+        if (cacheById != null) {
+            cacheById.evictIfPresent(id);
+        }
+        RedisHashEmployeeListCache hashCache = employeeListHashCache.getIfAvailable();
+        if (hashCache == null) {
+            evictAllEmployees();
+        } else if (hashCache.removeEmployee(id)) {
+            evictLocalCopies(REDIS_ALL_EMPLOYEES_CACHE_KEY, SimpleKey.EMPTY);
+        }
+    }
+
+    private void evictLocalCopies(String cacheName, Object key) {
+        if (cacheManager.getCache(cacheName) instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.evictLocalCopies(key);
+        }
+    }
+
+    private void evictAllEmployees() {
+        Cache allEmployeesCache = cacheManager.getCache(REDIS_ALL_EMPLOYEES_CACHE_KEY);
+        if (allEmployeesCache != null) {
+            allEmployeesCache.evict(SimpleKey.EMPTY);
+        }
+    }
+
+    private static EmployeeProto.Employee toProto(EmployeeResponseDTO employee, long version) {
+        EmployeeProto.Employee.Builder proto = EmployeeProto.Employee.newBuilder()
+                .setId(employee.getId())
+                .setSalary(employee.getSalary())
+                .setVersion(version);
+        if (employee.getName() != null) {
+            proto.setName(employee.getName());
+        }
+        if (employee.getPosition() != null) {
+            proto.setPosition(employee.getPosition());
+        }
+        if (employee.getHireDate() != null) {
+            proto.setHireDate(employee.getHireDate());
+        }
+        return proto.build();
+    }
+
+    private void clearAllEmployees() {
+        Cache allEmployeesCache = cacheManager.getCache(REDIS_ALL_EMPLOYEES_CACHE_KEY);
+        if (allEmployeesCache != null) {
+            allEmployeesCache.clear();
+        }
+    }
+}
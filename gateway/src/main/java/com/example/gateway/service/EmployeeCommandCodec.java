@@ -0,0 +1,99 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static com.example.gateway.config.RabbitMQConfig.correlationIdHeader;
+import static com.example.gateway.config.RabbitMQConfig.employeeDeleteRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.employeePostRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.employeePutRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.protobufContentType;
+import static com.example.gateway.config.RabbitMQConfig.publishedAtHeader;
+
+/**
+ * Builds the AMQP messages for employee commands. {@code gateway.commands.format=protobuf} sends
+ * {@link EmployeeProto.Employee} / {@link EmployeeProto.EmployeeRequest} bytes; {@code json} keeps
+ * the legacy format for as long as domain instances that only understand JSON are running.
+ */
+@Component
+public class EmployeeCommandCodec {
+
+    public enum Format {
+        PROTOBUF, JSON
+    }
+
+    private final MessageConverter messageConverter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.commands.format:protobuf}")
+    private Format format;
+
+    public EmployeeCommandCodec(MessageConverter messageConverter, ObjectMapper objectMapper) {
+        this.messageConverter = messageConverter;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The id must already be set; it selects the partition the command is sent to.
+     */
+    public Message createMessage(EmployeeRequestDTO employee) throws JsonProcessingException {
+        return employeeMessage(employeePostRequestRoutingKey, employee);
+    }
+
+    public Message updateMessage(EmployeeRequestDTO employee) throws JsonProcessingException {
+        return employeeMessage(employeePutRequestRoutingKey, employee);
+    }
+
+    public Message deleteMessage(String id) {
+        if (format == Format.JSON) {
+            return messageConverter.toMessage(id.getBytes(StandardCharsets.UTF_8), properties(employeeDeleteRequestRoutingKey));
+        }
+        return protobufMessage(employeeDeleteRequestRoutingKey, EmployeeProto.EmployeeRequest.newBuilder().setId(id).build().toByteArray());
+    }
+
+    private Message employeeMessage(String commandType, EmployeeRequestDTO employee) throws JsonProcessingException {
+        if (format == Format.JSON) {
+            return messageConverter.toMessage(objectMapper.writeValueAsBytes(employee), properties(commandType));
+        }
+        EmployeeProto.Employee.Builder message = EmployeeProto.Employee.newBuilder()
+                .setId(employee.getId())
+                .setSalary(employee.getSalary());
+        // Null fields stay absent; the domain reads them back as null, as it does for JSON commands
+        if (employee.getName() != null) {
+            message.setName(employee.getName());
+        }
+        if (employee.getPosition() != null) {
+            message.setPosition(employee.getPosition());
+        }
+        if (employee.getHireDate() != null) {
+            message.setHireDate(employee.getHireDate());
+        }
+        return protobufMessage(commandType, message.build().toByteArray());
+    }
+
+    private static Message protobufMessage(String commandType, byte[] body) {
+        MessageProperties properties = properties(commandType);
+        properties.setContentType(protobufContentType);
+        properties.setContentLength(body.length);
+        return new Message(body, properties);
+    }
+
+    // The partitioned queues carry all three operations, the type tells them apart
+    private static MessageProperties properties(String commandType) {
+        MessageProperties properties = new MessageProperties();
+        properties.setType(commandType);
+        properties.setHeader(publishedAtHeader, System.currentTimeMillis());
+        properties.setHeader(correlationIdHeader, UUID.randomUUID().toString());
+        return properties;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.gateway.service;
+
+import com.example.gateway.cache.RedisHashEmployeeListCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the {@code allEmployees} list from expiring under traffic. Reads report themselves via
+ * {@link #onRead()}; at most once per {@code check-interval} that looks up how much of the Redis
+ * TTL is left. Past {@code refresh-ahead-fraction} of it, the list is reloaded in the background
+ * while readers keep getting the current one. A short Redis claim makes sure only one gateway
+ * reloads it. Refresh-ahead needs the hash layout of the list
+ * ({@code gateway.cache.employee-list-layout=hash}); with the value layout it is off, which is
+ * logged on startup.
+ * <p>
+ * With {@code gateway.cache.warm-up.enabled} the list is also loaded on startup, before the
+ * instance reports itself ready, so its first requests find it in Redis instead of waiting for
+ * the domain service. Warm-up works with either layout. With the hash layout the list is only
+ * copied into the local cache by the first read, since a list loaded into a versioned cache may
+ * be older than what the cache already merged in.
+ */
+@Component
+@Slf4j
+public class EmployeeListRefresher implements ApplicationRunner {
+
+    private final EmployeeService employeeService;
+    private final ObjectProvider<RedisHashEmployeeListCache> employeeListCache;
+    private final AtomicLong nextCheckNanos = new AtomicLong(System.nanoTime());
+
+    @Value("${gateway.cache.refresh-ahead-fraction:0.8}")
+    private double refreshAheadFraction;
+
+    @Value("${gateway.cache.refresh-check-interval:5s}")
+    private Duration checkInterval;
+
+    @Value("${gateway.cache.warm-up.enabled:false}")
+    private boolean warmUpEnabled;
+
+    @Value("${gateway.cache.warm-up.timeout:30s}")
+    private Duration warmUpTimeout;
+
+    public EmployeeListRefresher(EmployeeService employeeService, ObjectProvider<RedisHashEmployeeListCache> employeeListCache) {
+        this.employeeService = employeeService;
+        this.employeeListCache = employeeListCache;
+    }
+
+    public void onRead() {
+        RedisHashEmployeeListCache cache = employeeListCache.getIfAvailable();
+        if (cache == null || !refreshAheadEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long next = nextCheckNanos.get();
+        if (now - next < 0 || !nextCheckNanos.compareAndSet(next, now + checkInterval.toNanos())) {
+            return;
+        }
+        try {
+            Duration remaining = cache.remainingTtl();
+            Duration refreshBelow = cache.getTtl().multipliedBy(Math.round((1 - refreshAheadFraction) * 1000)).dividedBy(1000);
+            if (remaining == null || remaining.compareTo(refreshBelow) > 0 || !cache.tryClaimRefresh(remaining)) {
+                return;
+            }
+            log.info("Refreshing employee list ahead of expiry, {} left", remaining);
+            employeeService.refreshAllEmployees().whenComplete((employees, e) -> {
+                if (e != null) {
+                    log.warn("Refreshing the employee list failed, it will be loaded on expiry", e);
+                } else {
+                    log.info("Employee list refreshed: {} employees", employees.getEmployeesCount());
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Could not check the employee list for refresh", e);
+        }
+    }
+
+    /**
+     * Runs before the application reports readiness; a failed warm-up only delays the first load
+     * until the first request.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (refreshAheadEnabled() && employeeListCache.getIfAvailable() == null) {
+            log.warn("gateway.cache.refresh-ahead-fraction={} has no effect: refresh-ahead needs "
+                    + "gateway.cache.employee-list-layout=hash, the list will only be loaded on expiry", refreshAheadFraction);
+        }
+        if (!warmUpEnabled) {
+            return;
+        }
+        log.info("Warming up the employee list cache");
+        try {
+            int count = employeeService.getAllEmployees().get(warmUpTimeout.toMillis(), TimeUnit.MILLISECONDS).getEmployeesCount();
+            log.info("Employee list cache warmed up with {} employees", count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warming up the employee list cache failed", e);
+        }
+    }
+
+    private boolean refreshAheadEnabled() {
+        return refreshAheadFraction > 0 && refreshAheadFraction < 1;
+    }
+}
@@ -3,23 +3,31 @@ package com.example.gateway.service;
 import com.example.domain.grpc.EmployeeProto;
 import com.example.domain.grpc.EmployeeServiceGrpc;
 import com.example.gateway.api.dto.EmployeeRequestDTO;
-import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.example.gateway.config.EmployeeCommandPartitions;
 import com.example.gateway.config.RabbitMQConfig;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Context;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
-import org.modelmapper.ModelMapper;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import static com.example.gateway.config.GrpcClientConfig.employeeServiceChannelName;
 import static com.example.gateway.config.RedisConfig.REDIS_ALL_EMPLOYEES_CACHE_KEY; // New import
 import static com.example.gateway.config.RedisConfig.REDIS_EMPLOYEE_BY_ID_CACHE_KEY; // New import
 
@@ -28,36 +36,121 @@ import static com.example.gateway.config.RedisConfig.REDIS_EMPLOYEE_BY_ID_CACHE_
 @Slf4j
 public class EmployeeService {
 
-    private final ModelMapper modelMapper = new ModelMapper();
-
-    @GrpcClient("employeeService")
+    @GrpcClient(employeeServiceChannelName)
     private EmployeeServiceGrpc.EmployeeServiceBlockingStub employeeServiceGrpc;
 
+    @GrpcClient(employeeServiceChannelName)
+    private EmployeeServiceGrpc.EmployeeServiceFutureStub employeeServiceFutureStub;
+
     private final RabbitTemplate rabbitTemplate;
-    private final CacheManager cacheManager;
+    private final EmployeeCommandCodec commandCodec;
+    private final EmployeeBatchLoader employeeBatchLoader;
+    private final EmployeeCommandPartitions commandPartitions;
+
+    // Concurrent cache misses for the same key share one gRPC call
+    private final SingleFlight<SimpleKey, EmployeeProto.EmployeeListResponse> allEmployeesFlight;
+    private final SingleFlight<String, EmployeeProto.Employee> employeeByIdFlight;
+    private final SingleFlight<String, EmployeeProto.EmployeePage> employeePageFlight;
 
-    public EmployeeService(RabbitTemplate rabbitTemplate, CacheManager cacheManager) {
+    @Value("${gateway.read.budget:2s}")
+    private Duration readBudget;
+
+    public EmployeeService(RabbitTemplate rabbitTemplate, EmployeeCommandCodec commandCodec, EmployeeBatchLoader employeeBatchLoader,
+                           EmployeeCommandPartitions commandPartitions, MeterRegistry meterRegistry) {
         this.rabbitTemplate = rabbitTemplate;
-        this.cacheManager = cacheManager;
+        this.commandCodec = commandCodec;
+        this.employeeBatchLoader = employeeBatchLoader;
+        this.commandPartitions = commandPartitions;
+        this.allEmployeesFlight = new SingleFlight<>(REDIS_ALL_EMPLOYEES_CACHE_KEY, meterRegistry);
+        this.employeeByIdFlight = new SingleFlight<>(REDIS_EMPLOYEE_BY_ID_CACHE_KEY, meterRegistry);
+        this.employeePageFlight = new SingleFlight<>("employeePage", meterRegistry);
     }
 
-
     @Cacheable(REDIS_ALL_EMPLOYEES_CACHE_KEY) // Use correct key
-    public List<EmployeeResponseDTO> getAllEmployees() {
-        log.info("Fetching all employees via gRPC...");
-        var response = employeeServiceGrpc.listEmployees(EmployeeProto.Empty.newBuilder().build());
-        return response.getEmployeesList()
-                .stream()
-                .map(employee -> modelMapper.map(employee, EmployeeResponseDTO.class))
-                .collect(Collectors.toList());
+    public CompletableFuture<EmployeeProto.EmployeeListResponse> getAllEmployees() {
+        return allEmployeesFlight.execute(SimpleKey.EMPTY, () -> {
+            log.info("Fetching all employees via gRPC...");
+            return GrpcFutures.toCompletableFuture(readStub().listEmployees(EmployeeProto.Empty.newBuilder().build()))
+                    .thenApply(EmployeeService::sortedById);
+        });
+    }
+
+    /**
+     * Reloads the list and stores it once it arrives; readers keep getting the cached list
+     * meanwhile. Changes patched into the cache during the reload are kept: the cache merges the
+     * reloaded list with them rather than replacing it ({@code RedisHashEmployeeListCache#putIfNewer}).
+     */
+    @CachePut(REDIS_ALL_EMPLOYEES_CACHE_KEY)
+    public CompletableFuture<EmployeeProto.EmployeeListResponse> refreshAllEmployees() {
+        return allEmployeesFlight.execute(SimpleKey.EMPTY, () -> {
+            log.info("Refreshing all employees via gRPC...");
+            return GrpcFutures.toCompletableFuture(readStub().listEmployees(EmployeeProto.Empty.newBuilder().build()))
+                    .thenApply(EmployeeService::sortedById);
+        });
+    }
+
+    /**
+     * Orders the list by id, as the Redis index returns it, so that a list served straight from
+     * the domain service and the same list read back from the cache get the same ETag.
+     */
+    static EmployeeProto.EmployeeListResponse sortedById(EmployeeProto.EmployeeListResponse employees) {
+        List<EmployeeProto.Employee> list = employees.getEmployeesList();
+        for (int i = 1; i < list.size(); i++) {
+            if (list.get(i - 1).getId().compareTo(list.get(i).getId()) > 0) {
+                List<EmployeeProto.Employee> sorted = new ArrayList<>(list);
+                sorted.sort(Comparator.comparing(EmployeeProto.Employee::getId));
+                return employees.toBuilder().clearEmployees().addAllEmployees(sorted).build();
+            }
+        }
+        return employees;
     }
 
     @Cacheable(value = REDIS_EMPLOYEE_BY_ID_CACHE_KEY, key = "#id") // Use correct key
-    public EmployeeResponseDTO getEmployeeById(String id) {
-        log.info("Fetching employee by ID via gRPC: {}", id);
-        var request = EmployeeProto.EmployeeRequest.newBuilder().setId(id).build();
-        var employee = employeeServiceGrpc.getEmployee(request);
-        return modelMapper.map(employee.getEmployee(), EmployeeResponseDTO.class);
+    public CompletableFuture<EmployeeProto.Employee> getEmployeeById(String id) {
+        // Misses for different ids arriving close together are fetched with one BatchGetEmployees call
+        return employeeByIdFlight.execute(id, () -> employeeBatchLoader.load(id));
+    }
+
+    public CompletableFuture<EmployeeProto.EmployeePage> getEmployeePage(int limit, String cursor) {
+        return employeePageFlight.execute(limit + ":" + (cursor == null ? "" : cursor), () -> {
+            log.info("Fetching employee page via gRPC: limit={}, cursor={}", limit, cursor);
+            return GrpcFutures.toCompletableFuture(readStub().listEmployeePage(pageRequest(limit, cursor)));
+        });
+    }
+
+    /**
+     * Every read RPC gets its own deadline of {@code gateway.read.budget}; once it passes the
+     * call fails with DEADLINE_EXCEEDED instead of holding the request open.
+     */
+    private EmployeeServiceGrpc.EmployeeServiceFutureStub readStub() {
+        return employeeServiceFutureStub.withDeadlineAfter(readBudget.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hands employees to {@code consumer} page by page as they arrive on the gRPC stream.
+     * If the consumer fails (e.g. the HTTP client went away) the stream is cancelled so the
+     * domain service stops reading.
+     */
+    public void streamEmployees(int pageSize, String cursor, PageConsumer consumer) throws IOException {
+        log.info("Streaming employees via gRPC: pageSize={}, cursor={}", pageSize, cursor);
+        Context.CancellableContext context = Context.current().withCancellation();
+        Context previous = context.attach();
+        try {
+            Iterator<EmployeeProto.EmployeePage> pages = employeeServiceGrpc.streamEmployees(pageRequest(pageSize, cursor));
+            while (pages.hasNext()) {
+                consumer.accept(pages.next().getEmployeesList());
+            }
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
+        }
+    }
+
+    private EmployeeProto.EmployeePageRequest pageRequest(int pageSize, String cursor) {
+        return EmployeeProto.EmployeePageRequest.newBuilder()
+                .setPageSize(pageSize)
+                .setCursor(cursor == null ? "" : cursor)
+                .build();
     }
 
     public void saveNewEmployee(EmployeeRequestDTO employeeRequestDTO) {
@@ -68,17 +161,11 @@ public class EmployeeService {
                 log.info("Generated new ID for employee: {}", generatedId);
             }
 
-            byte[] message = new ObjectMapper().writeValueAsBytes(employeeRequestDTO);
-            rabbitTemplate.convertAndSend(
+            rabbitTemplate.send(
                     RabbitMQConfig.directExchangeName,
-                    RabbitMQConfig.employeePostRequestRoutingKey,
-                    message
+                    commandPartitions.routingKey(employeeRequestDTO.getId()),
+                    commandCodec.createMessage(employeeRequestDTO)
             );
-
-            EmployeeResponseDTO employeeResponseDTO = modelMapper.map(employeeRequestDTO, EmployeeResponseDTO.class);
-            saveToCache(employeeResponseDTO);
-
-            deleteFromCache(null);
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize EmployeeRequestDTO to JSON", e);
             throw new RuntimeException("Serialization error", e);
@@ -91,17 +178,11 @@ public class EmployeeService {
     public void updateEmployee(String id, EmployeeRequestDTO employeeRequestDTO) {
         try {
             employeeRequestDTO.setId(id);
-            byte[] message = new ObjectMapper().writeValueAsBytes(employeeRequestDTO);
-            rabbitTemplate.convertAndSend(
+            rabbitTemplate.send(
                     RabbitMQConfig.directExchangeName,
-                    RabbitMQConfig.employeePutRequestRoutingKey,
-                    message
+                    commandPartitions.routingKey(id),
+                    commandCodec.updateMessage(employeeRequestDTO)
             );
-
-            EmployeeResponseDTO employeeResponseDTO = modelMapper.map(employeeRequestDTO, EmployeeResponseDTO.class);
-            saveToCache(employeeResponseDTO);
-
-            deleteFromCache(null);
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize EmployeeRequestDTO to JSON", e);
             throw new RuntimeException("Serialization error", e);
@@ -113,41 +194,19 @@ public class EmployeeService {
 
     public void deleteEmployee(String id) {
         try {
-            byte[] message = id.getBytes();
-            rabbitTemplate.convertAndSend(
+            rabbitTemplate.send(
                     RabbitMQConfig.directExchangeName,
-                    RabbitMQConfig.employeeDeleteRequestRoutingKey,
-                    message
+                    commandPartitions.routingKey(id),
+                    commandCodec.deleteMessage(id)
             );
-
-            deleteFromCache(id);
-            deleteFromCache(null);
         } catch (Exception e) {
             log.error("Error while sending delete request to RabbitMQ for ID: {}", id, e);
             throw e;
         }
     }
 
-
-    private void saveToCache(EmployeeResponseDTO employeeResponseDTO) {
-        Cache cacheById = cacheManager.getCache(REDIS_EMPLOYEE_BY_ID_CACHE_KEY); // Use correct key
-        if (cacheById != null) {
-            cacheById.put(employeeResponseDTO.getId(), employeeResponseDTO);
-            log.info("Saved employee to cache with ID: {}", employeeResponseDTO.getId());
-        }
-    }
-
-    private void deleteFromCache(String id) {
-        if (id == null) {
-            Cache allEmployeesCache = cacheManager.getCache(REDIS_ALL_EMPLOYEES_CACHE_KEY); // Use correct key
-            if (allEmployeesCache != null) {
-                allEmployeesCache.clear();
-            }
-        } else {
-            Cache employeeByIdCache = cacheManager.getCache(REDIS_EMPLOYEE_BY_ID_CACHE_KEY); // Use correct key
-            if (employeeByIdCache != null) {
-                employeeByIdCache.evictIfPresent(id);
-            }
-        }
+    @FunctionalInterface
+    public interface PageConsumer {
+        void accept(List<EmployeeProto.Employee> employees) throws IOException;
     }
-}
\ No newline at end of file
+}
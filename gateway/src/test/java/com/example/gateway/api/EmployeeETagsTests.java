@@ -0,0 +1,57 @@
+package com.example.gateway.api;
+
+import com.example.domain.grpc.EmployeeProto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeETagsTests {
+
+    private static final EmployeeProto.Employee ALICE = EmployeeProto.Employee.newBuilder()
+            .setId("00000000-0000-0000-0000-000000000001")
+            .setName("Alice")
+            .setVersion(7)
+            .build();
+    private static final EmployeeProto.Employee BOB = EmployeeProto.Employee.newBuilder()
+            .setId("00000000-0000-0000-0000-000000000002")
+            .setName("Bob")
+            .setVersion(2)
+            .build();
+
+    private final EmployeeETags etags = new EmployeeETags();
+
+    @Test
+    void employeeTagFollowsVersion() {
+        assertThat(etags.of(ALICE)).isEqualTo("W/\"7\"");
+        assertThat(etags.of(ALICE.toBuilder().setVersion(8).build())).isNotEqualTo(etags.of(ALICE));
+    }
+
+    @Test
+    void listTagChangesWhenAnyEmployeeChanges() {
+        String original = etags.of(list(ALICE, BOB));
+
+        // Bob's version stays below the maximum, the tag must change anyway
+        assertThat(etags.of(list(ALICE, BOB.toBuilder().setVersion(3).build()))).isNotEqualTo(original);
+        assertThat(etags.of(list(ALICE))).isNotEqualTo(original);
+        assertThat(etags.of(list(ALICE, BOB))).isEqualTo(original);
+    }
+
+    @Test
+    void ifNoneMatchUsesWeakComparison() {
+        String etag = etags.of(ALICE);
+
+        assertThat(etags.matches(etag, etag)).isTrue();
+        // The strong form, e.g. kept by a client from before the tags were weak
+        assertThat(etags.matches("\"7\"", etag)).isTrue();
+        assertThat(etags.matches("\"1\", " + etag, etag)).isTrue();
+        assertThat(etags.matches("*", etag)).isTrue();
+        assertThat(etags.matches("\"1\"", etag)).isFalse();
+        assertThat(etags.matches(null, etag)).isFalse();
+    }
+
+    private static EmployeeProto.EmployeeListResponse list(EmployeeProto.Employee... employees) {
+        return EmployeeProto.EmployeeListResponse.newBuilder().addAllEmployees(List.of(employees)).build();
+    }
+}
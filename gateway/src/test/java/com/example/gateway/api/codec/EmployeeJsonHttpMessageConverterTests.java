@@ -0,0 +1,99 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeJsonHttpMessageConverterTests {
+
+    private static final EmployeeProto.Employee ALICE = EmployeeProto.Employee.newBuilder()
+            .setId("00000000-0000-0000-0000-000000000001")
+            .setName("Alice \"Al\" Smith")
+            .setPosition("Engineer")
+            .setSalary(123456.5)
+            .setHireDate("2020-01-31")
+            .build();
+    private static final EmployeeProto.Employee BOB = EmployeeProto.Employee.newBuilder()
+            .setId("00000000-0000-0000-0000-000000000002")
+            .setName("Bob")
+            .setPosition("Manager")
+            .setSalary(90000)
+            .setHireDate("2018-06-01")
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmployeeJsonHttpMessageConverter converter = new EmployeeJsonHttpMessageConverter(objectMapper.getFactory());
+
+    @Test
+    void singleEmployeeMatchesPreviousShape() throws IOException {
+        assertThat(write(new EmployeeBody(ALICE))).isEqualTo(objectMapper.valueToTree(Map.of(
+                "status", "success",
+                "employee", dto(ALICE)
+        )));
+    }
+
+    @Test
+    void listMatchesPreviousShape() throws IOException {
+        assertThat(write(EmployeeListBody.of(List.of(ALICE, BOB)))).isEqualTo(objectMapper.valueToTree(Map.of(
+                "status", "success",
+                "employees", List.of(dto(ALICE), dto(BOB))
+        )));
+    }
+
+    @Test
+    void unsetFieldsAreWrittenAsNull() throws IOException {
+        EmployeeProto.Employee unnamed = EmployeeProto.Employee.newBuilder().setId(BOB.getId()).setSalary(1).build();
+
+        JsonNode employee = write(new EmployeeBody(unnamed)).get("employee");
+
+        assertThat(employee.get("name").isNull()).isTrue();
+        assertThat(employee.get("position").isNull()).isTrue();
+        assertThat(employee.get("hireDate").isNull()).isTrue();
+    }
+
+    @Test
+    void pageCarriesCursorOnlyWhenSet() throws IOException {
+        EmployeeProto.EmployeePage lastPage = EmployeeProto.EmployeePage.newBuilder().addEmployees(BOB).build();
+        EmployeeProto.EmployeePage fullPage = lastPage.toBuilder().setNextCursor("abc").build();
+
+        assertThat(write(EmployeeListBody.page(lastPage)).has("nextCursor")).isFalse();
+        assertThat(write(EmployeeListBody.page(fullPage)).get("nextCursor").asText()).isEqualTo("abc");
+    }
+
+    @Test
+    void lookupByIdsListsMissingIds() throws IOException {
+        assertThat(write(EmployeeListBody.byIds(List.of(ALICE), List.of("missing")))).isEqualTo(objectMapper.valueToTree(Map.of(
+                "status", "success",
+                "employees", List.of(dto(ALICE)),
+                "notFound", List.of("missing")
+        )));
+    }
+
+    @Test
+    void onlyWritesEmployeeBodies() {
+        assertThat(converter.canWrite(EmployeeListBody.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(Map.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canRead(EmployeeBody.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private JsonNode write(Object body) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, output);
+        assertThat(output.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        return objectMapper.readTree(output.getBodyAsBytes());
+    }
+
+    private static EmployeeResponseDTO dto(EmployeeProto.Employee employee) {
+        return new EmployeeResponseDTO(employee.getId(), employee.getName(), employee.getPosition(), employee.getSalary(), employee.getHireDate());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.gateway.api.codec;
+
+import com.example.domain.grpc.EmployeeProto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.gateway.api.codec.EmployeeProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeProtobufHttpMessageConverterTests {
+
+    private static final EmployeeProto.Employee ALICE = EmployeeProto.Employee.newBuilder()
+            .setId("00000000-0000-0000-0000-000000000001")
+            .setName("Alice")
+            .setVersion(3)
+            .build();
+
+    private final EmployeeProtobufHttpMessageConverter converter = new EmployeeProtobufHttpMessageConverter();
+
+    @Test
+    void writesSingleEmployeeAsEmployeeResponse() throws IOException {
+        MockHttpOutputMessage output = write(new EmployeeBody(ALICE));
+
+        assertThat(output.getHeaders().getFirst("X-Protobuf-Message")).isEqualTo("com.example.domain.EmployeeResponse");
+        assertThat(EmployeeProto.EmployeeResponse.parseFrom(output.getBodyAsBytes()).getEmployee()).isEqualTo(ALICE);
+    }
+
+    @Test
+    void listsParseAsEmployeePage() throws IOException {
+        EmployeeProto.EmployeePage page = EmployeeProto.EmployeePage.newBuilder().addEmployees(ALICE).setNextCursor("abc").build();
+        assertThat(EmployeeProto.EmployeePage.parseFrom(write(EmployeeListBody.page(page)).getBodyAsBytes())).isEqualTo(page);
+
+        // A last page is written as EmployeeListResponse, which is wire-compatible
+        MockHttpOutputMessage lastPage = write(EmployeeListBody.page(page.toBuilder().clearNextCursor().build()));
+        assertThat(EmployeeProto.EmployeePage.parseFrom(lastPage.getBodyAsBytes()).getEmployeesList()).containsExactly(ALICE);
+    }
+
+    @Test
+    void lookupByIdsListsMissingIds() throws IOException {
+        MockHttpOutputMessage output = write(EmployeeListBody.byIds(List.of(ALICE), List.of("missing")));
+
+        EmployeeProto.EmployeeListResponse response = EmployeeProto.EmployeeListResponse.parseFrom(output.getBodyAsBytes());
+        assertThat(response.getEmployeesList()).containsExactly(ALICE);
+        assertThat(response.getNotFoundList()).containsExactly("missing");
+    }
+
+    @Test
+    void onlyWritesEmployeeBodies() {
+        assertThat(converter.canWrite(EmployeeBody.class, APPLICATION_PROTOBUF)).isTrue();
+        assertThat(converter.canWrite(EmployeeBody.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(Map.class, APPLICATION_PROTOBUF)).isFalse();
+    }
+
+    private MockHttpOutputMessage write(Object body) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, APPLICATION_PROTOBUF, output);
+        return output;
+    }
+}
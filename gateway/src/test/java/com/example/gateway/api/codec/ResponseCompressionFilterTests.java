@@ -0,0 +1,152 @@
+package com.example.gateway.api.codec;
+
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ResponseCompressionFilterTests {
+
+    private static final String LARGE_BODY = "{\"employees\":[" + "{\"name\":\"Alice\"},".repeat(200) + "{}]}";
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(
+            List.of(MimeTypeUtils.APPLICATION_JSON), 1024, 3);
+
+    @Test
+    void prefersZstdOverGzip() {
+        assertThat(ResponseCompressionFilter.selectCoding("gzip, deflate, zstd")).isEqualTo("zstd");
+        assertThat(ResponseCompressionFilter.selectCoding("gzip, zstd;q=0")).isEqualTo("gzip");
+        assertThat(ResponseCompressionFilter.selectCoding("br, identity")).isNull();
+        assertThat(ResponseCompressionFilter.selectCoding(null)).isNull();
+    }
+
+    @Test
+    void encodesLargeBodiesWithTheAcceptedCoding() throws Exception {
+        MockHttpServletResponse zstd = serve("zstd", "application/json", LARGE_BODY);
+        assertThat(zstd.getHeader("Content-Encoding")).isEqualTo("zstd");
+        assertThat(decode(new ZstdInputStream(new ByteArrayInputStream(zstd.getContentAsByteArray())))).isEqualTo(LARGE_BODY);
+
+        MockHttpServletResponse gzip = serve("gzip", "application/json", LARGE_BODY);
+        assertThat(gzip.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(gzip.getContentAsByteArray())))).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void leavesSmallAndNonCompressibleBodiesAlone() throws Exception {
+        MockHttpServletResponse small = serve("zstd", "application/json", "{}");
+        assertThat(small.getHeader("Content-Encoding")).isNull();
+        assertThat(small.getContentLength()).isEqualTo(2);
+        assertThat(small.getContentAsString()).isEqualTo("{}");
+
+        MockHttpServletResponse image = serve("zstd", "image/png", LARGE_BODY);
+        assertThat(image.getHeader("Content-Encoding")).isNull();
+        assertThat(image.getContentAsString()).isEqualTo(LARGE_BODY);
+    }
+
+    @Test
+    void encodedBodiesVaryByAcceptEncodingAndGetWeakTags() throws Exception {
+        MockHttpServletResponse negotiated = serve("zstd", "application/json", LARGE_BODY, "Accept, Accept-Encoding", "\"7\"");
+        assertThat(negotiated.getHeaders("Vary")).containsExactly("Accept, Accept-Encoding");
+        assertThat(negotiated.getHeader("ETag")).isEqualTo("W/\"7\"");
+
+        MockHttpServletResponse plain = serve("zstd", "application/json", LARGE_BODY, null, "W/\"7\"");
+        assertThat(plain.getHeaders("Vary")).containsExactly("Accept-Encoding");
+        assertThat(plain.getHeader("ETag")).isEqualTo("W/\"7\"");
+
+        MockHttpServletResponse small = serve("zstd", "application/json", "{}", null, "\"7\"");
+        assertThat(small.getHeader("ETag")).isEqualTo("\"7\"");
+    }
+
+    @Test
+    void nonBlockingWritesGoThroughToTheContainer() throws Exception {
+        List<WriteListener> registered = new ArrayList<>();
+        ServletOutputStream containerStream = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                registered.add(writeListener);
+            }
+
+            @Override
+            public void write(int b) {
+            }
+        };
+        HttpServletResponse container = new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return containerStream;
+            }
+        };
+        WriteListener listener = mock(WriteListener.class);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees");
+        request.addHeader("Accept-Encoding", "zstd");
+
+        filter.doFilter(request, container, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getOutputStream().setWriteListener(listener);
+                assertThat(resp.getOutputStream().isReady()).isFalse();
+            }
+        }));
+
+        assertThat(registered).containsExactly(listener);
+    }
+
+    private MockHttpServletResponse serve(String acceptEncoding, String contentType, String body) throws Exception {
+        return serve(acceptEncoding, contentType, body, null, null);
+    }
+
+    private MockHttpServletResponse serve(String acceptEncoding, String contentType, String body, String vary, String etag) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/employees");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                if (vary != null) {
+                    resp.setHeader("Vary", vary);
+                }
+                if (etag != null) {
+                    resp.setHeader("ETag", etag);
+                }
+                // In pieces, as a streaming writer would
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                for (int offset = 0; offset < bytes.length; offset += 100) {
+                    resp.getOutputStream().write(bytes, offset, Math.min(100, bytes.length - offset));
+                    resp.flushBuffer();
+                }
+            }
+        }));
+        return response;
+    }
+
+    private static String decode(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.gateway.api.limit;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitClientInterceptorTests {
+
+    private static final String ALICE = "00000000-0000-0000-0000-000000000001";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VegasLimit readLimit = new VegasLimit(1, 1, 1);
+    private Server server;
+    private ManagedChannel channel;
+    private EmployeeServiceGrpc.EmployeeServiceBlockingStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new EmployeeServiceGrpc.EmployeeServiceImplBase() {
+                    @Override
+                    public void getEmployee(EmployeeProto.EmployeeRequest request,
+                                            StreamObserver<EmployeeProto.EmployeeResponse> responseObserver) {
+                        if (request.getId().equals(ALICE)) {
+                            responseObserver.onNext(EmployeeProto.EmployeeResponse.newBuilder()
+                                    .setEmployee(EmployeeProto.Employee.newBuilder().setId(ALICE))
+                                    .build());
+                            responseObserver.onCompleted();
+                        } else {
+                            responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+                        }
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = EmployeeServiceGrpc.newBlockingStub(ClientInterceptors.intercept(channel,
+                new ConcurrencyLimitClientInterceptor(readLimit, meterRegistry)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void callOverTheLimitFailsWithoutReachingTheDomain() {
+        assertThat(readLimit.tryAcquire()).isTrue();
+
+        assertThatThrownBy(() -> get(ALICE))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED));
+        assertThat(meterRegistry.counter("gateway.concurrency.rejected", "budget", "read").count()).isEqualTo(1);
+        assertThat(readLimit.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void releasesTheSlotWhenTheCallCloses() {
+        assertThat(get(ALICE).getEmployee().getId()).isEqualTo(ALICE);
+        assertThatThrownBy(() -> get("unavailable")).isInstanceOf(StatusRuntimeException.class);
+        assertThat(get(ALICE).getEmployee().getId()).isEqualTo(ALICE);
+
+        assertThat(readLimit.getInFlight()).isZero();
+        assertThat(meterRegistry.get("gateway.concurrency.limit").tag("budget", "read").gauge().value()).isEqualTo(1);
+    }
+
+    private EmployeeProto.EmployeeResponse get(String id) {
+        return stub.getEmployee(EmployeeProto.EmployeeRequest.newBuilder().setId(id).build());
+    }
+}
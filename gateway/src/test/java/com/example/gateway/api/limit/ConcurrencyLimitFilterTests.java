@@ -0,0 +1,49 @@
+package com.example.gateway.api.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VegasLimit writeLimit = new VegasLimit(1, 1, 1);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(writeLimit, Duration.ofSeconds(2), meterRegistry);
+
+    @Test
+    void rejectsWithRetryAfterWhenTheBudgetIsUsedUp() throws Exception {
+        assertThat(writeLimit.tryAcquire()).isTrue();
+
+        MockHttpServletResponse rejected = serve("POST");
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("\"status\":\"error\"");
+        assertThat(meterRegistry.counter("gateway.concurrency.rejected", "budget", "write").count()).isEqualTo(1);
+
+        // Reads are limited where they call the domain, not here
+        assertThat(serve("GET").getStatus()).isEqualTo(200);
+        assertThat(serve("HEAD").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void releasesTheSlotWhenTheRequestIsDone() throws Exception {
+        assertThat(serve("PUT").getStatus()).isEqualTo(200);
+        assertThat(serve("DELETE").getStatus()).isEqualTo(200);
+
+        assertThat(writeLimit.getInFlight()).isZero();
+        assertThat(meterRegistry.get("gateway.concurrency.limit").tag("budget", "write").gauge().value()).isEqualTo(1);
+    }
+
+    private MockHttpServletResponse serve(String method) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/employees");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gateway.api.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VegasLimitTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        VegasLimit limit = new VegasLimit(2, 1, 10);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.onIgnored();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsWhileLatencyStaysAtTheBaselineAndShrinksWhenItQueues() {
+        VegasLimit limit = new VegasLimit(20, 5, 200);
+        runAtFullLoad(limit, FAST, 20);
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        runAtFullLoad(limit, SLOW, 20);
+        assertThat(limit.getLimit()).isLessThan(grown);
+    }
+
+    @Test
+    void backsOffOnDropsDownToTheMinimum() {
+        VegasLimit limit = new VegasLimit(20, 5, 200);
+        for (int i = 0; i < 100; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+            limit.onDropped();
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(5);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    // Fills the limit, then completes every request with the same latency
+    private static void runAtFullLoad(VegasLimit limit, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.onSuccess(rttNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.gateway.cache;
+
+import com.example.domain.grpc.EmployeeProto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisEmployeeByIdCacheTests {
+
+    private static final String ALICE = "00000000-0000-0000-0000-000000000001";
+    private static final String BOB = "00000000-0000-0000-0000-000000000002";
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisEmployeeByIdCache cache;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redis = RedisServer.newRedisServer()
+                .port(port)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        cache = new RedisEmployeeByIdCache("employeeById", "test:", redisTemplate, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void onlyNewerVersionsReplaceTheEntry() {
+        assertThat(cache.putIfNewer(ALICE, employee(ALICE, 2))).isTrue();
+        assertThat(cache.putIfNewer(ALICE, employee(ALICE, 1))).isFalse();
+        assertThat(cache.putIfNewer(ALICE, employee(ALICE, 2))).isFalse();
+
+        assertThat(cache.get(ALICE, EmployeeProto.Employee.class).getVersion()).isEqualTo(2);
+
+        assertThat(cache.putIfNewer(ALICE, employee(ALICE, 3))).isTrue();
+        assertThat(cache.get(ALICE, EmployeeProto.Employee.class).getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void tombstoneIsAMissThatRefusesOlderVersions() {
+        cache.put(ALICE, employee(ALICE, 4));
+
+        cache.tombstone(ALICE, 5);
+
+        assertThat(cache.get(ALICE)).isNull();
+        // A read that loaded the employee before the delete
+        assertThat(cache.retrieve(ALICE, () -> CompletableFuture.completedFuture(employee(ALICE, 4))).join().getVersion()).isEqualTo(4);
+        assertThat(cache.get(ALICE)).isNull();
+        assertThat(redisTemplate.getExpire("test:employeeById:entry:" + ALICE)).isBetween(1L, 60L);
+    }
+
+    @Test
+    void recreatedEmployeeReplacesTheTombstone() {
+        cache.put(ALICE, employee(ALICE, 4));
+        cache.tombstone(ALICE, 5);
+
+        cache.replace(employee(ALICE, 0));
+
+        assertThat(cache.get(ALICE, EmployeeProto.Employee.class).getVersion()).isZero();
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        cache.put(ALICE, employee(ALICE, 1));
+        cache.put(BOB, employee(BOB, 1));
+
+        cache.clear();
+
+        assertThat(cache.get(ALICE)).isNull();
+        assertThat(cache.get(BOB)).isNull();
+    }
+
+    private static EmployeeProto.Employee employee(String id, long version) {
+        return EmployeeProto.Employee.newBuilder()
+                .setId(id)
+                .setName("Employee " + id.charAt(id.length() - 1))
+                .setVersion(version)
+                .build();
+    }
+}
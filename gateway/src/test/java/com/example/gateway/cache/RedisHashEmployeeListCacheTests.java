@@ -0,0 +1,213 @@
+package com.example.gateway.cache;
+
+import com.example.domain.grpc.EmployeeProto;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisHashEmployeeListCacheTests {
+
+    private static final String ALICE = "00000000-0000-0000-0000-000000000001";
+    private static final String BOB = "00000000-0000-0000-0000-000000000002";
+    private static final String CAROL = "00000000-0000-0000-0000-000000000003";
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private RedisHashEmployeeListCache cache;
+
+    @BeforeAll
+    static void startRedis() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redis = RedisServer.newRedisServer()
+                .port(port)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        cache = new RedisHashEmployeeListCache("allEmployees", "test:", redisTemplate, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void listIsReadBackInIdOrder() {
+        cache.put(SimpleKey.EMPTY, list(employee(CAROL, 1), employee(ALICE, 1), employee(BOB, 1)));
+
+        assertThat(ids(cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class))).containsExactly(ALICE, BOB, CAROL);
+    }
+
+    @Test
+    void putReplacesTheWholeList() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1), employee(BOB, 1)));
+        cache.put(SimpleKey.EMPTY, list(employee(CAROL, 1)));
+
+        assertThat(ids(cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class))).containsExactly(CAROL);
+        assertIndexMatchesData();
+    }
+
+    @Test
+    void putEmployeeReplacesAndInsertsInOrder() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1), employee(CAROL, 1)));
+
+        assertThat(cache.putEmployee(employee(ALICE, 2))).isTrue();
+        assertThat(cache.putEmployee(employee(BOB, 1))).isTrue();
+
+        EmployeeProto.EmployeeListResponse cached = cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class);
+        assertThat(ids(cached)).containsExactly(ALICE, BOB, CAROL);
+        assertThat(cached.getEmployees(0).getVersion()).isEqualTo(2);
+        assertIndexMatchesData();
+    }
+
+    @Test
+    void putEmployeeLeavesAnUnloadedListAlone() {
+        assertThat(cache.putEmployee(employee(ALICE, 1))).isFalse();
+
+        assertThat(cache.get(SimpleKey.EMPTY)).isNull();
+        assertThat(redisTemplate.hasKey("test:allEmployees:data")).isFalse();
+        assertThat(redisTemplate.hasKey("test:allEmployees:index")).isFalse();
+    }
+
+    @Test
+    void removeEmployeeDropsHashFieldAndIndexMember() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1), employee(BOB, 1), employee(CAROL, 1)));
+
+        assertThat(cache.removeEmployee(BOB)).isTrue();
+        assertThat(cache.removeEmployee(BOB)).isFalse();
+
+        assertThat(ids(cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class))).containsExactly(ALICE, CAROL);
+        assertIndexMatchesData();
+    }
+
+    @Test
+    void putEmployeeIgnoresVersionsThatAreNotNewer() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 3)));
+
+        assertThat(cache.putEmployee(employee(ALICE, 2))).isFalse();
+        assertThat(cache.putEmployee(employee(ALICE, 3))).isFalse();
+
+        assertThat(cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class).getEmployees(0).getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void listPutKeepsNewerPatches() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1), employee(BOB, 1)));
+        cache.putEmployee(employee(ALICE, 2));
+        cache.putEmployee(employee(CAROL, 0));
+        cache.tombstoneEmployee(BOB, 2);
+
+        // Read from the domain service before those changes
+        assertThat(cache.putIfNewer(SimpleKey.EMPTY, list(employee(ALICE, 1), employee(BOB, 1)))).isFalse();
+
+        EmployeeProto.EmployeeListResponse cached = cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class);
+        assertThat(ids(cached)).containsExactly(ALICE, CAROL);
+        assertThat(cached.getEmployees(0).getVersion()).isEqualTo(2);
+        assertIndexMatchesData();
+    }
+
+    @Test
+    void listPutTakesWhatIsNewerThanThePatches() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1)));
+        cache.putEmployee(employee(ALICE, 2));
+
+        assertThat(cache.putIfNewer(SimpleKey.EMPTY, list(employee(ALICE, 3), employee(BOB, 1)))).isTrue();
+
+        EmployeeProto.EmployeeListResponse cached = cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class);
+        assertThat(ids(cached)).containsExactly(ALICE, BOB);
+        assertThat(cached.getEmployees(0).getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    void listIsNotStoredWhenAPatchItLacksIsNotCached() {
+        // Not loaded, so the patch is only recorded
+        assertThat(cache.putEmployee(employee(ALICE, 2))).isFalse();
+
+        assertThat(cache.putIfNewer(SimpleKey.EMPTY, list(employee(ALICE, 1)))).isFalse();
+
+        assertThat(cache.get(SimpleKey.EMPTY)).isNull();
+    }
+
+    @Test
+    void tombstoneRefusesOlderVersionsButNotARecreatedEmployee() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 4)));
+
+        assertThat(cache.tombstoneEmployee(ALICE, 5)).isTrue();
+        assertThat(cache.putEmployee(employee(ALICE, 4))).isFalse();
+        assertThat(cache.replaceEmployee(employee(ALICE, 0))).isTrue();
+
+        assertThat(cache.get(SimpleKey.EMPTY, EmployeeProto.EmployeeListResponse.class).getEmployees(0).getVersion()).isZero();
+    }
+
+    @Test
+    void clearedListIsAMiss() {
+        cache.put(SimpleKey.EMPTY, list(employee(ALICE, 1)));
+
+        cache.clear();
+
+        assertThat(cache.get(SimpleKey.EMPTY)).isNull();
+        assertThat(cache.remainingTtl()).isNull();
+    }
+
+    @Test
+    void refreshCanBeClaimedOnce() {
+        assertThat(cache.tryClaimRefresh(Duration.ofSeconds(10))).isTrue();
+        assertThat(cache.tryClaimRefresh(Duration.ofSeconds(10))).isFalse();
+    }
+
+    private void assertIndexMatchesData() {
+        assertThat(redisTemplate.opsForZSet().range("test:allEmployees:index", 0, -1))
+                .containsExactlyInAnyOrderElementsOf(redisTemplate.<String, Object>opsForHash().keys("test:allEmployees:data")
+                        .stream().map(String::valueOf).toList());
+    }
+
+    private static List<String> ids(EmployeeProto.EmployeeListResponse employees) {
+        return employees.getEmployeesList().stream().map(EmployeeProto.Employee::getId).toList();
+    }
+
+    private static EmployeeProto.EmployeeListResponse list(EmployeeProto.Employee... employees) {
+        return EmployeeProto.EmployeeListResponse.newBuilder().addAllEmployees(List.of(employees)).build();
+    }
+
+    private static EmployeeProto.Employee employee(String id, long version) {
+        return EmployeeProto.Employee.newBuilder()
+                .setId(id)
+                .setName("Employee " + id.charAt(id.length() - 1))
+                .setPosition("Engineer")
+                .setSalary(1000)
+                .setHireDate("2020-01-31")
+                .setVersion(version)
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.gateway.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.metrics.cache.CacheMetricsRegistrar;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class TwoLevelCacheManagerTests {
+
+    @Test
+    void localTierMetricsCoexistWithSpringCacheMetricsInPrometheus() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // Registered the way Spring Boot binds the caches of the other cache managers
+        new CacheMetricsRegistrar(meterRegistry, List.of(new CaffeineCacheMeterBinderProvider()))
+                .bindCacheToRegistry(new CaffeineCache("allEmployees", Caffeine.newBuilder().recordStats().build()),
+                        Tag.of("cache.manager", "redisCacheManager"));
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(new ConcurrentMapCacheManager("allEmployees"),
+                mock(CacheInvalidationPublisher.class), new ObjectMapper(), meterRegistry, 10, Duration.ofSeconds(30));
+
+        cacheManager.getCache("allEmployees").get("missing");
+
+        assertThat(meterRegistry.scrape())
+                .contains("cache_gets_total{cache=\"allEmployees\",cache_manager=\"redisCacheManager\",name=\"allEmployees\",result=\"miss\"}")
+                .contains("cache_gets_total{cache=\"allEmployees\",cache_manager=\"l1\",name=\"allEmployees\",result=\"miss\"} 1.0");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TwoLevelCacheTests {
+
+    private ConcurrentMapCache remote;
+    private CacheInvalidationPublisher publisher;
+    private TwoLevelCache cache;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("employeeById");
+        publisher = mock(CacheInvalidationPublisher.class);
+        cache = new TwoLevelCache("employeeById", Caffeine.newBuilder().maximumSize(10).build(), remote, publisher, meterRegistry);
+    }
+
+    @Test
+    void servesFromLocalTierAfterFirstRemoteHit() {
+        remote.put("1", "alice");
+
+        assertThat(cache.get("1", String.class)).isEqualTo("alice");
+        remote.evict("1");
+
+        assertThat(cache.get("1", String.class)).isEqualTo("alice");
+    }
+
+    @Test
+    void writesGoToBothTiersAndAreBroadcast() {
+        cache.put("1", "alice");
+
+        assertThat(remote.get("1", String.class)).isEqualTo("alice");
+        verify(publisher).publish("employeeById", "1");
+    }
+
+    @Test
+    void remoteInvalidationDropsOnlyTheLocalCopy() {
+        cache.put("1", "alice");
+        remote.put("1", "bob");
+
+        cache.evictLocal("1");
+
+        assertThat(cache.get("1", String.class)).isEqualTo("bob");
+    }
+
+    @Test
+    void clearIsBroadcastWithoutKey() {
+        cache.put("1", "alice");
+
+        cache.clear();
+
+        assertThat(cache.get("1")).isNull();
+        verify(publisher).publish("employeeById", null);
+    }
+
+    @Test
+    void asyncRetrieveBackFillsLocalTier() {
+        remote.put("1", "alice");
+
+        assertThat(unwrap(cache.retrieve("1").join())).isEqualTo("alice");
+        remote.evict("1");
+
+        assertThat(unwrap(cache.retrieve("1").join())).isEqualTo("alice");
+    }
+
+    @Test
+    void refusedWriteLeavesTheLocalTierToTheRemoteValue() {
+        VersionedCache versionedRemote = new KeepingCache();
+        TwoLevelCache versioned = new TwoLevelCache("employeeById", Caffeine.newBuilder().maximumSize(10).build(), versionedRemote,
+                publisher, meterRegistry);
+        versionedRemote.put("1", "bob");
+
+        versioned.put("1", "alice");
+
+        assertThat(versioned.get("1", String.class)).isEqualTo("bob");
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Cache.ValueWrapper wrapper ? wrapper.get() : value;
+    }
+
+    @Test
+    void countsWhereLookupsWereServedFrom() {
+        remote.put("1", "alice");
+
+        cache.get("1");
+        cache.get("1");
+        cache.get("2");
+
+        assertThat(lookups("remote_hit")).isEqualTo(1);
+        assertThat(lookups("local_hit")).isEqualTo(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("gateway.cache.lookups", "cache", "employeeById", "result", result).count();
+    }
+
+    /**
+     * Takes a value only for a key it does not hold yet, as if every later value were older.
+     */
+    private static final class KeepingCache extends ConcurrentMapCache implements VersionedCache {
+
+        KeepingCache() {
+            super("employeeById");
+        }
+
+        @Override
+        public boolean putIfNewer(Object key, Object value) {
+            return putIfAbsent(key, value) == null;
+        }
+    }
+}
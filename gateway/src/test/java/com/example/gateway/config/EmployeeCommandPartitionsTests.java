@@ -0,0 +1,49 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeCommandPartitionsTests {
+
+    private final EmployeeCommandPartitions partitions = new EmployeeCommandPartitions(8);
+
+    @Test
+    void spellingsOfTheSameIdShareAPartition() {
+        String id = "0a1b2c3d-0000-4000-8000-00000000abcd";
+
+        assertThat(partitions.partitionOf(id.toUpperCase())).isEqualTo(partitions.partitionOf(id));
+        assertThat(partitions.partitionOf(" " + id + " ")).isEqualTo(partitions.partitionOf(id));
+        assertThat(partitions.routingKey(id)).isEqualTo(EmployeeCommandPartitions.routingKey(partitions.partitionOf(id)));
+    }
+
+    @Test
+    void idsAreSpreadOverAllPartitions() {
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            int partition = partitions.partitionOf(UUID.randomUUID().toString());
+            assertThat(partition).isBetween(0, 7);
+            used.add(partition);
+        }
+
+        assertThat(used).hasSize(8);
+    }
+
+    @Test
+    void changeEventQueuesAreNumberedLikeTheCommandQueues() {
+        assertThat(EmployeeCommandPartitions.queueName(3)).isEqualTo("employeeCommandQueue.3");
+        assertThat(EmployeeCommandPartitions.changedQueueName(3)).isEqualTo("gatewayEmployeeChangedQueue.3");
+        // The domain publishes the changes of an employee with employee.changed.<partition of its commands>
+        assertThat(EmployeeCommandPartitions.changedRoutingKey(3)).isEqualTo("employee.changed.3");
+    }
+
+    @Test
+    void rejectsNonPositiveCounts() {
+        assertThatThrownBy(() -> new EmployeeCommandPartitions(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
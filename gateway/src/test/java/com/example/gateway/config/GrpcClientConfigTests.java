@@ -0,0 +1,152 @@
+package com.example.gateway.config;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import com.example.gateway.api.limit.ConcurrencyLimitClientInterceptor;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.health.v1.HealthCheckResponse;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.protobuf.services.HealthStatusManager;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GrpcClientConfigTests {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<String> responseEncodings = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService delayed = Executors.newSingleThreadScheduledExecutor();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        HealthStatusManager health = new HealthStatusManager();
+        health.setStatus(EmployeeServiceGrpc.SERVICE_NAME, HealthCheckResponse.ServingStatus.SERVING);
+        // The first attempt answers after the hedging delay, so the hedge is sent and wins
+        EmployeeServiceGrpc.EmployeeServiceImplBase service = new EmployeeServiceGrpc.EmployeeServiceImplBase() {
+            @Override
+            public void listEmployeePage(EmployeeProto.EmployeePageRequest request,
+                                         StreamObserver<EmployeeProto.EmployeePage> responseObserver) {
+                if (attempts.incrementAndGet() == 1) {
+                    delayed.schedule(() -> reply(request, responseObserver), 1, TimeUnit.SECONDS);
+                } else {
+                    reply(request, responseObserver);
+                }
+            }
+        };
+        // Same as the domain's response compression for list methods
+        ServerInterceptor gzip = new ServerInterceptor() {
+            @Override
+            public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call, Metadata headers,
+                                                              ServerCallHandler<Q, R> next) {
+                call.setCompression("gzip");
+                return next.startCall(call, headers);
+            }
+        };
+        server = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+                .addService(ServerInterceptors.intercept(service, gzip))
+                .addService(health.getHealthService())
+                .build()
+                .start();
+
+        GrpcClientConfig config = new GrpcClientConfig();
+        ReflectionTestUtils.setField(config, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(config, "hedgingDelay", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(config, "retryThrottlingMaxTokens", 10.0);
+        ReflectionTestUtils.setField(config, "retryThrottlingTokenRatio", 0.1);
+        ReflectionTestUtils.setField(config, "outlierDetectionInterval", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(config, "baseEjectionTime", Duration.ofSeconds(30));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ConcurrencyLimitClientInterceptor> noLimiter = mock(ObjectProvider.class);
+        NettyChannelBuilder builder = NettyChannelBuilder.forTarget("dns:///localhost:" + server.getPort())
+                .usePlaintext()
+                .intercept(new ResponseEncodingRecorder());
+        config.employeeServiceChannelConfigurer(noLimiter).accept(builder, GrpcClientConfig.employeeServiceChannelName);
+        channel = builder.build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        delayed.shutdownNow();
+    }
+
+    @Test
+    void hedgedPageReadsDecodeCompressedResponses() {
+        EmployeeServiceGrpc.EmployeeServiceBlockingStub stub = EmployeeServiceGrpc.newBlockingStub(channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 3; i++) {
+            EmployeeProto.EmployeePage page = stub.listEmployeePage(EmployeeProto.EmployeePageRequest.newBuilder()
+                    .setPageSize(50)
+                    .build());
+
+            assertThat(page.getEmployeesList()).hasSize(50);
+            assertThat(page.getNextCursor()).isEqualTo("50");
+        }
+        // One hedge for the first call, none for the calls answered in time
+        assertThat(attempts).hasValue(4);
+        assertThat(responseEncodings).containsOnly("gzip");
+    }
+
+    private static void reply(EmployeeProto.EmployeePageRequest request, StreamObserver<EmployeeProto.EmployeePage> responseObserver) {
+        EmployeeProto.EmployeePage.Builder page = EmployeeProto.EmployeePage.newBuilder().setNextCursor(String.valueOf(request.getPageSize()));
+        for (int i = 0; i < request.getPageSize(); i++) {
+            page.addEmployees(EmployeeProto.Employee.newBuilder()
+                    .setId("00000000-0000-0000-0000-%012d".formatted(i))
+                    .setName("Employee " + i)
+                    .build());
+        }
+        responseObserver.onNext(page.build());
+        responseObserver.onCompleted();
+    }
+
+    private class ResponseEncodingRecorder implements ClientInterceptor {
+        @Override
+        public <Q, R> ClientCall<Q, R> interceptCall(MethodDescriptor<Q, R> method, CallOptions callOptions, Channel next) {
+            return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                @Override
+                public void start(Listener<R> responseListener, Metadata headers) {
+                    super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                        @Override
+                        public void onHeaders(Metadata headers) {
+                            responseEncodings.add(headers.get(Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER)));
+                            super.onHeaders(headers);
+                        }
+                    }, headers);
+                }
+            };
+        }
+    }
+}
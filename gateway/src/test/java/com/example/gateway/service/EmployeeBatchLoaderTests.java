@@ -0,0 +1,103 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.domain.grpc.EmployeeServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeBatchLoaderTests {
+
+    private static final String ALICE = "00000000-0000-0000-0000-000000000001";
+    private static final String BOB = "00000000-0000-0000-0000-000000000002";
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+    private EmployeeBatchLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new EmployeeServiceGrpc.EmployeeServiceImplBase() {
+                    @Override
+                    public void batchGetEmployees(EmployeeProto.BatchGetEmployeesRequest request,
+                                                  StreamObserver<EmployeeProto.BatchGetEmployeesResponse> responseObserver) {
+                        batches.add(request.getIdsList());
+                        var response = EmployeeProto.BatchGetEmployeesResponse.newBuilder();
+                        request.getIdsList().stream()
+                                .filter(id -> !id.equals(BOB))
+                                .forEach(id -> response.addEmployees(EmployeeProto.Employee.newBuilder()
+                                        .setId(UUID.fromString(id).toString())
+                                        .setName("Employee " + id)
+                                        .build()));
+                        responseObserver.onNext(response.build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+
+        loader = new EmployeeBatchLoader();
+        ReflectionTestUtils.setField(loader, "employeeServiceFutureStub", EmployeeServiceGrpc.newFutureStub(channel));
+        ReflectionTestUtils.setField(loader, "readBudget", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(loader, "batchWindow", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(loader, "maxBatchSize", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.destroy();
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void lookupsWithinTheWindowShareOneCall() {
+        CompletableFuture<EmployeeProto.Employee> alice = loader.load(ALICE);
+        CompletableFuture<EmployeeProto.Employee> aliceAgain = loader.load(ALICE);
+        CompletableFuture<EmployeeProto.Employee> bob = loader.load(BOB);
+
+        assertThat(alice.join().getId()).isEqualTo(ALICE);
+        assertThat(aliceAgain.join().getId()).isEqualTo(ALICE);
+        assertThatThrownBy(bob::join)
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND));
+        assertThat(batches).containsExactly(List.of(ALICE, BOB));
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() {
+        loader.load("00000000-0000-0000-0000-00000000000a");
+        loader.load("00000000-0000-0000-0000-00000000000b");
+        CompletableFuture<EmployeeProto.Employee> third = loader.load("00000000-0000-0000-0000-00000000000C");
+
+        // directExecutor: the call has already completed by the time load() returns
+        assertThat(third).isCompleted();
+        assertThat(third.join().getId()).isEqualTo("00000000-0000-0000-0000-00000000000c");
+        assertThat(batches).hasSize(1);
+    }
+}
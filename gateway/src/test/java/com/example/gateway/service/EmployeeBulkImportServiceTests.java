@@ -0,0 +1,138 @@
+package com.example.gateway.service;
+
+import com.example.gateway.api.dto.BulkImportResultDTO;
+import com.example.gateway.api.dto.BulkRowResultDTO;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.example.gateway.config.EmployeeCommandPartitions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class EmployeeBulkImportServiceTests {
+
+    private static final String ALICE = "00000000-0000-0000-0000-000000000001";
+
+    private EmployeeBulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        // The mocked template neither sends nor fails, so every valid row counts as accepted
+        service = new EmployeeBulkImportService(mock(RabbitTemplate.class), new ObjectMapper(), mock(EmployeeCommandCodec.class),
+                mock(EmployeeCommandPartitions.class));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "confirmTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 10);
+        ReflectionTestUtils.setField(service, "maxLineLength", 100);
+    }
+
+    @Test
+    void csvFieldsMayBeQuoted() {
+        assertThat(EmployeeBulkImportService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\",,"))
+                .containsExactly("a", "b,c", "say \"hi\"", "", "");
+    }
+
+    @Test
+    void unterminatedQuoteRunsToTheEndOfTheLine() {
+        assertThat(EmployeeBulkImportService.parseCsvLine("a,\"b,c")).containsExactly("a", "b,c");
+    }
+
+    @Test
+    void validEmployeePasses() {
+        assertThatCode(() -> EmployeeBulkImportService.validate(employee(ALICE, "Alice", 1000, "2020-01-31")))
+                .doesNotThrowAnyException();
+        assertThatCode(() -> EmployeeBulkImportService.validate(employee(null, "Alice", 1000, "2020-01-31")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void invalidEmployeesAreRejected() {
+        assertThatThrownBy(() -> EmployeeBulkImportService.validate(employee("not-a-uuid", "Alice", 1000, "2020-01-31")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EmployeeBulkImportService.validate(employee(ALICE, " ", 1000, "2020-01-31")))
+                .hasMessageContaining("name");
+        assertThatThrownBy(() -> EmployeeBulkImportService.validate(employee(ALICE, "Alice", 0, "2020-01-31")))
+                .hasMessageContaining("salary");
+        assertThatThrownBy(() -> EmployeeBulkImportService.validate(employee(ALICE, "Alice", 1000, null)))
+                .hasMessageContaining("hireDate");
+        assertThatThrownBy(() -> EmployeeBulkImportService.validate(employee(ALICE, "Alice", 1000, "31.01.2020")))
+                .isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void invalidRowsAreReportedWithTheirLineNumber() throws Exception {
+        BulkImportResultDTO result = importCsv("""
+                id,name,position,salary,hireDate
+                %s,Alice,Engineer,1000,2020-01-31
+
+                ,Bob,,1000,2020-01-31
+                ,Carol,Engineer,abc,2020-01-31
+                """.formatted(ALICE));
+
+        assertThat(result.getTotal()).isEqualTo(3);
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkRowResultDTO::getRow).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void overlongLinesAreRejectedAndTheNextLineIsRead() throws Exception {
+        BulkImportResultDTO result = importCsv("name,position,salary,hireDate\r\n"
+                + "Alice,Engineer,1000,2020-01-31," + "x".repeat(200) + "\r\n"
+                + "Bob,Engineer,1000,2020-01-31\r\n");
+
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRow()).isEqualTo(2);
+            assertThat(error.getMessage()).contains("longer than 100");
+        });
+    }
+
+    @Test
+    void overlongCsvHeaderFailsTheImport() {
+        assertThatThrownBy(() -> importCsv("name,position,salary,hireDate," + "x".repeat(200) + "\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("header");
+    }
+
+    @Test
+    void lineReaderHandlesAllLineTerminators() throws Exception {
+        EmployeeBulkImportService.LineReader reader = new EmployeeBulkImportService.LineReader(
+                new BufferedReader(new StringReader("a\nbb\r\n\rcccc")), 3);
+
+        assertThat(reader.readLine()).isEqualTo("a");
+        assertThat(reader.readLine()).isEqualTo("bb");
+        assertThat(reader.readLine()).isEmpty();
+        assertThat(reader.readLine()).isEqualTo("ccc");
+        assertThat(reader.isTooLong()).isTrue();
+        assertThat(reader.readLine()).isNull();
+    }
+
+    private BulkImportResultDTO importCsv(String body) throws Exception {
+        return service.importEmployees(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8,
+                EmployeeBulkImportService.Format.CSV);
+    }
+
+    private static EmployeeRequestDTO employee(String id, String name, double salary, String hireDate) {
+        return EmployeeRequestDTO.builder()
+                .id(id)
+                .name(name)
+                .position("Engineer")
+                .salary(salary)
+                .hireDate(hireDate)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.api.dto.EmployeeRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.example.gateway.config.RabbitMQConfig.correlationIdHeader;
+import static com.example.gateway.config.RabbitMQConfig.employeeDeleteRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.employeePostRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.employeePutRequestRoutingKey;
+import static com.example.gateway.config.RabbitMQConfig.protobufContentType;
+import static com.example.gateway.config.RabbitMQConfig.publishedAtHeader;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeCommandCodecTests {
+
+    private static final EmployeeRequestDTO ALICE = new EmployeeRequestDTO(
+            "00000000-0000-0000-0000-000000000001", "Alice", "Engineer", 1000.5, "2020-01-31");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Jackson2JsonMessageConverter messageConverter = new Jackson2JsonMessageConverter();
+
+    @Test
+    void protobufCommandsCarryTheEmployeeMessage() throws Exception {
+        Message message = codec(EmployeeCommandCodec.Format.PROTOBUF).createMessage(ALICE);
+
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(protobufContentType);
+        assertThat(message.getMessageProperties().getType()).isEqualTo(employeePostRequestRoutingKey);
+        EmployeeProto.Employee employee = EmployeeProto.Employee.parseFrom(message.getBody());
+        assertThat(employee.getId()).isEqualTo(ALICE.getId());
+        assertThat(employee.getName()).isEqualTo("Alice");
+        assertThat(employee.getSalary()).isEqualTo(1000.5);
+        assertThat(employee.getHireDate()).isEqualTo("2020-01-31");
+    }
+
+    @Test
+    void protobufDeleteCarriesTheId() throws Exception {
+        Message message = codec(EmployeeCommandCodec.Format.PROTOBUF).deleteMessage(ALICE.getId());
+
+        assertThat(message.getMessageProperties().getType()).isEqualTo(employeeDeleteRequestRoutingKey);
+        assertThat(message.getMessageProperties().<Long>getHeader(publishedAtHeader)).isPositive();
+        assertThat(message.getMessageProperties().<String>getHeader(correlationIdHeader)).isNotBlank();
+        assertThat(EmployeeProto.EmployeeRequest.parseFrom(message.getBody()).getId()).isEqualTo(ALICE.getId());
+    }
+
+    @Test
+    void protobufToleratesMissingOptionalFields() throws Exception {
+        EmployeeRequestDTO partial = EmployeeRequestDTO.builder().id(ALICE.getId()).name("Alice").salary(1).build();
+
+        EmployeeProto.Employee employee = EmployeeProto.Employee.parseFrom(
+                codec(EmployeeCommandCodec.Format.PROTOBUF).updateMessage(partial).getBody());
+
+        assertThat(employee.getHireDate()).isEmpty();
+        // Absent rather than "", so the domain reads null as it does for JSON commands
+        assertThat(employee.hasName()).isTrue();
+        assertThat(employee.hasPosition()).isFalse();
+        assertThat(employee.hasHireDate()).isFalse();
+    }
+
+    @Test
+    void jsonCommandsAreUnchanged() throws Exception {
+        Message message = codec(EmployeeCommandCodec.Format.JSON).updateMessage(ALICE);
+        Message legacy = messageConverter.toMessage(objectMapper.writeValueAsBytes(ALICE), new MessageProperties());
+
+        assertThat(message.getMessageProperties().getType()).isEqualTo(employeePutRequestRoutingKey);
+        assertThat(message.getBody()).isEqualTo(legacy.getBody());
+        assertThat(message.getMessageProperties().getContentType()).isEqualTo(legacy.getMessageProperties().getContentType());
+        assertThat((byte[]) messageConverter.fromMessage(message)).isEqualTo(objectMapper.writeValueAsBytes(ALICE));
+    }
+
+    private EmployeeCommandCodec codec(EmployeeCommandCodec.Format format) {
+        EmployeeCommandCodec codec = new EmployeeCommandCodec(messageConverter, objectMapper);
+        ReflectionTestUtils.setField(codec, "format", format);
+        return codec;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.gateway.service;
+
+import com.example.domain.grpc.EmployeeProto;
+import com.example.gateway.cache.RedisHashEmployeeListCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmployeeListRefresherTests {
+
+    private final EmployeeService employeeService = mock(EmployeeService.class);
+    private final RedisHashEmployeeListCache cache = mock(RedisHashEmployeeListCache.class);
+    private EmployeeListRefresher refresher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<RedisHashEmployeeListCache> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(cache);
+        when(cache.getTtl()).thenReturn(Duration.ofMinutes(10));
+        when(cache.tryClaimRefresh(any())).thenReturn(true);
+        when(employeeService.refreshAllEmployees())
+                .thenReturn(CompletableFuture.completedFuture(EmployeeProto.EmployeeListResponse.getDefaultInstance()));
+
+        refresher = new EmployeeListRefresher(employeeService, provider);
+        ReflectionTestUtils.setField(refresher, "refreshAheadFraction", 0.8);
+        ReflectionTestUtils.setField(refresher, "checkInterval", Duration.ZERO);
+    }
+
+    @Test
+    void refreshesOnceMostOfTheTtlHasPassed() {
+        when(cache.remainingTtl()).thenReturn(Duration.ofMinutes(5));
+        refresher.onRead();
+        verify(employeeService, never()).refreshAllEmployees();
+
+        when(cache.remainingTtl()).thenReturn(Duration.ofMinutes(1));
+        refresher.onRead();
+        verify(employeeService, times(1)).refreshAllEmployees();
+    }
+
+    @Test
+    void leavesTheRefreshToTheGatewayHoldingTheClaim() {
+        when(cache.remainingTtl()).thenReturn(Duration.ofSeconds(30));
+        when(cache.tryClaimRefresh(any())).thenReturn(false);
+
+        refresher.onRead();
+
+        verify(employeeService, never()).refreshAllEmployees();
+    }
+
+    @Test
+    void warmsUpWithoutRefreshingAheadWithTheValueLayout() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedisHashEmployeeListCache> noHashCache = mock(ObjectProvider.class);
+        when(employeeService.getAllEmployees())
+                .thenReturn(CompletableFuture.completedFuture(EmployeeProto.EmployeeListResponse.getDefaultInstance()));
+        refresher = new EmployeeListRefresher(employeeService, noHashCache);
+        ReflectionTestUtils.setField(refresher, "refreshAheadFraction", 0.8);
+        ReflectionTestUtils.setField(refresher, "checkInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(refresher, "warmUpEnabled", true);
+        ReflectionTestUtils.setField(refresher, "warmUpTimeout", Duration.ofSeconds(1));
+
+        refresher.run(new DefaultApplicationArguments());
+        refresher.onRead();
+
+        verify(employeeService, times(1)).getAllEmployees();
+        verify(employeeService, never()).refreshAllEmployees();
+    }
+
+    @Test
+    void checksAtMostOncePerInterval() {
+        ReflectionTestUtils.setField(refresher, "checkInterval", Duration.ofMinutes(1));
+        when(cache.remainingTtl()).thenReturn(Duration.ofMinutes(5));
+
+        refresher.onRead();
+        refresher.onRead();
+
+        verify(cache, times(1)).remainingTtl();
+    }
+}
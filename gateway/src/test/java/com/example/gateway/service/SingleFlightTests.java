@@ -0,0 +1,83 @@
+package com.example.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> flight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flight = new SingleFlight<>("employeeById", meterRegistry);
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> load = new CompletableFuture<>();
+
+        CompletableFuture<String> first = flight.execute("1", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = flight.execute("1", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        load.complete("alice");
+
+        assertThat(first.join()).isEqualTo("alice");
+        assertThat(second.join()).isEqualTo("alice");
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void completedLoadIsNotReused() {
+        flight.execute("1", () -> CompletableFuture.completedFuture("alice")).join();
+
+        assertThat(flight.execute("1", () -> CompletableFuture.completedFuture("bob")).join()).isEqualTo("bob");
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    void failureIsSharedAndThenForgotten() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("1", () -> load);
+        CompletableFuture<String> second = flight.execute("1", CompletableFuture::new);
+        load.completeExceptionally(new IllegalStateException("boom"));
+
+        assertThatThrownBy(first::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThatThrownBy(second::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("boom");
+        assertThat(flight.execute("1", () -> CompletableFuture.completedFuture("alice")).join()).isEqualTo("alice");
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheLoad() {
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("1", () -> load);
+        CompletableFuture<String> second = flight.execute("1", CompletableFuture::new);
+
+        first.cancel(true);
+        load.complete("alice");
+
+        assertThat(load).isNotCancelled();
+        assertThat(second.join()).isEqualTo("alice");
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.singleflight.calls").tag("result", result).counter().count();
+    }
+}
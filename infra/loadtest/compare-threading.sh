@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Runs the same k6 read load against the stack in platform-thread and in virtual-thread mode
+# and writes the side-by-side numbers to loadtest/results/threading-comparison.md.
+#
+# Requirements: docker (with compose v2) and jq. k6 runs from the grafana/k6 image.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RESULTS=loadtest/results
+mkdir -p "$RESULTS"
+
+wait_for_gateway() {
+    for _ in $(seq 1 120); do
+        if curl -fs http://localhost:8080/actuator/health > /dev/null; then
+            return 0
+        fi
+        sleep 2
+    done
+    echo "gateway did not become healthy" >&2
+    exit 1
+}
+
+metric() {
+    curl -fs "http://localhost:8080/actuator/metrics/$1" | jq '.measurements[0].value'
+}
+
+docker compose -f docker-compose.yml up -d postgres rabbitmq redis
+
+for mode in platform virtual; do
+    files=(-f docker-compose.yml)
+    if [[ "$mode" == virtual ]]; then
+        files+=(-f docker-compose.virtual-threads.yml)
+    fi
+
+    docker compose "${files[@]}" up -d --build --force-recreate domain gateway
+    wait_for_gateway
+
+    docker run --rm --network host -v "$PWD/loadtest:/scripts" \
+        -e BASE_URL=http://localhost:8080 \
+        grafana/k6 run --summary-export "/scripts/results/$mode.json" /scripts/employees-read.js
+
+    jq -n --argjson threads "$(metric jvm.threads.peak)" --argjson heap "$(metric jvm.memory.used)" \
+        '{gatewayPeakThreads: $threads, gatewayMemoryUsedBytes: $heap}' > "$RESULTS/$mode-jvm.json"
+    # Domain replicas have generated container names, so look the containers up through compose
+    docker stats --no-stream --format '{{.Name}} {{.MemUsage}} {{.CPUPerc}}' \
+        $(docker compose "${files[@]}" ps -q domain gateway) > "$RESULTS/$mode-containers.txt"
+done
+
+row() {
+    local mode=$1
+    jq -r --slurpfile jvm "$RESULTS/$mode-jvm.json" --arg mode "$mode" '
+        .metrics as $m |
+        "| \($mode) | \($m.http_reqs.rate | floor) | \($m.http_req_duration["p(50)"] * 100 | round / 100) | \($m.http_req_duration["p(99)"] * 100 | round / 100) | \($m.http_req_duration["p(99.9)"] * 100 | round / 100) | \(($m.http_req_failed.value // 0) * 10000 | round / 100)% | \($jvm[0].gatewayPeakThreads) |"
+    ' "$RESULTS/$mode.json"
+}
+
+{
+    echo "# Platform threads vs virtual threads"
+    echo
+    echo "Generated by \`loadtest/compare-threading.sh\` on $(date -u +%Y-%m-%d) ($(uname -srm), $(nproc) CPUs)."
+    echo
+    echo "| mode | req/s | p50 ms | p99 ms | p99.9 ms | errors | gateway peak threads |"
+    echo "|------|-------|--------|--------|----------|--------|----------------------|"
+    row platform
+    row virtual
+    echo
+    echo "Container usage at the end of each run:"
+    echo
+    echo '```'
+    cat "$RESULTS/platform-containers.txt" | sed 's/^/platform /'
+    cat "$RESULTS/virtual-containers.txt" | sed 's/^/virtual  /'
+    echo '```'
+} > "$RESULTS/threading-comparison.md"
+
+cat "$RESULTS/threading-comparison.md"
@@ -0,0 +1,71 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const SEED_EMPLOYEES = parseInt(__ENV.SEED_EMPLOYEES || '2000', 10);
+const PEAK_RATE = parseInt(__ENV.PEAK_RATE || '2000', 10);
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 5000,
+            stages: [
+                { target: PEAK_RATE / 4, duration: '1m' },
+                { target: PEAK_RATE, duration: '2m' },
+                { target: PEAK_RATE, duration: '2m' },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'p(99.9)', 'max'],
+};
+
+export function setup() {
+    let ids = fetchIds();
+    if (ids.length < SEED_EMPLOYEES) {
+        const rows = [];
+        for (let i = ids.length; i < SEED_EMPLOYEES; i++) {
+            rows.push(JSON.stringify({ name: `Load ${i}`, position: 'Engineer', salary: 1000 + i, hireDate: '2020-01-01' }));
+        }
+        http.post(`${BASE_URL}/api/v1/employees:bulk`, rows.join('\n'), {
+            headers: { 'Content-Type': 'application/x-ndjson' },
+            timeout: '120s',
+        });
+        // Writes are asynchronous; give the domain listener time to apply them
+        for (let attempt = 0; attempt < 30 && ids.length < SEED_EMPLOYEES; attempt++) {
+            sleep(2);
+            ids = fetchIds();
+        }
+    }
+    return { ids };
+}
+
+function fetchIds() {
+    const ids = [];
+    let cursor = '';
+    do {
+        const res = http.get(`${BASE_URL}/api/v1/employees?limit=1000${cursor ? `&cursor=${cursor}` : ''}`);
+        if (res.status !== 200) {
+            return ids;
+        }
+        const body = res.json();
+        body.employees.forEach((employee) => ids.push(employee.id));
+        cursor = body.nextCursor || '';
+    } while (cursor);
+    return ids;
+}
+
+// 80% single lookups (served mostly from cache), 20% uncached page reads that reach Postgres
+export default function (data) {
+    if (Math.random() < 0.8) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        const res = http.get(`${BASE_URL}/api/v1/employees/${id}`, { tags: { name: 'getEmployeeById' } });
+        check(res, { 'by id 200': (r) => r.status === 200 });
+    } else {
+        const res = http.get(`${BASE_URL}/api/v1/employees?limit=50`, { tags: { name: 'getEmployeePage' } });
+        check(res, { 'page 200': (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The calls the harness makes against {@code /api/v1/employees} of the gateway. Requests go out
+ * without {@code Accept-Encoding}, so bodies come back uncompressed JSON.
+ */
+final class EmployeeClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String JSON = "application/json";
+    // Must not exceed gateway.employees.max-ids
+    private static final int IDS_PER_LOOKUP = 100;
+    private static final int ROWS_PER_BULK_REQUEST = 1000;
+
+    private final HttpClient http;
+    private final String employees;
+    private final ObjectMapper objectMapper;
+
+    EmployeeClient(HttpClient http, URI gateway, ObjectMapper objectMapper) {
+        this.http = http;
+        this.employees = gateway + "/api/v1/employees";
+        this.objectMapper = objectMapper;
+    }
+
+    int getById(String id) throws IOException, InterruptedException {
+        return send(get(employees + "/" + id)).statusCode();
+    }
+
+    int getPage(int limit) throws IOException, InterruptedException {
+        return send(get(employees + "?limit=" + limit)).statusCode();
+    }
+
+    int create(String id, double salary) throws IOException, InterruptedException {
+        HttpRequest request = request(employees)
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body(id, salary)))
+                .build();
+        return send(request).statusCode();
+    }
+
+    int update(String id, double salary) throws IOException, InterruptedException {
+        HttpRequest request = request(employees + "/" + id)
+                .header("Content-Type", JSON)
+                .PUT(HttpRequest.BodyPublishers.ofString(body(id, salary)))
+                .build();
+        return send(request).statusCode();
+    }
+
+    /**
+     * @return the salary the gateway currently returns for the employee, empty if it does not know it
+     */
+    OptionalDouble salaryOf(String id) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(get(employees + "/" + id), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return OptionalDouble.empty();
+        }
+        return OptionalDouble.of(objectMapper.readTree(response.body()).path("employee").path("salary").asDouble());
+    }
+
+    /**
+     * Creates the employees through {@code POST /api/v1/employees:bulk}; like every write they are
+     * applied asynchronously, see {@link #missing}.
+     */
+    void bulkCreate(List<String> ids, double salary) throws IOException, InterruptedException {
+        for (int from = 0; from < ids.size(); from += ROWS_PER_BULK_REQUEST) {
+            String rows = ids.subList(from, Math.min(ids.size(), from + ROWS_PER_BULK_REQUEST)).stream()
+                    .map(id -> body(id, salary))
+                    .collect(Collectors.joining("\n"));
+            HttpRequest request = request(employees + ":bulk")
+                    .timeout(Duration.ofMinutes(2))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(rows))
+                    .build();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Bulk import failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+    }
+
+    /**
+     * @return the ids the gateway does not find yet
+     */
+    Set<String> missing(List<String> ids) throws IOException, InterruptedException {
+        Set<String> missing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += IDS_PER_LOOKUP) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + IDS_PER_LOOKUP));
+            HttpResponse<byte[]> response = http.send(get(employees + "?ids=" + String.join(",", chunk)),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                missing.addAll(chunk);
+                continue;
+            }
+            for (JsonNode id : objectMapper.readTree(response.body()).path("notFound")) {
+                missing.add(id.asText());
+            }
+        }
+        return missing;
+    }
+
+    private HttpResponse<Void> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private HttpRequest get(String uri) {
+        return request(uri).GET().build();
+    }
+
+    private HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private String body(String id, double salary) {
+        Map<String, Object> employee = new LinkedHashMap<>();
+        employee.put("id", id);
+        employee.put("name", "Load " + id.substring(0, 8));
+        employee.put("position", "Engineer");
+        employee.put("salary", salary);
+        employee.put("hireDate", "2020-01-01");
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line of the harness: {@code --name=value} pairs, see {@link #USAGE}.
+ */
+record LoadTestOptions(
+        URI target,
+        Path domainJar,
+        Path gatewayJar,
+        String serviceJvmArgs,
+        String profiles,
+        Path workDir,
+        int rate,
+        Duration warmUp,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        int seed,
+        int maxInFlight,
+        double visibilitySample,
+        Duration visibilityPollInterval,
+        Duration visibilityTimeout,
+        Path result,
+        Path baseline,
+        double tolerance) {
+
+    static final String USAGE = """
+            Usage: java -jar target/loadtest.jar [--name=value ...]
+
+            Services (started in child JVMs against embedded Postgres, RabbitMQ and Redis unless --target is set)
+              --target=URL                gateway to load instead, e.g. http://localhost:8080 for the docker-compose stack
+              --domain-jar=PATH           default ../domain/target/domain-0.0.1-SNAPSHOT.jar
+              --gateway-jar=PATH          default ../gateway/target/gateway-0.0.1-SNAPSHOT.jar
+              --service-jvm-args=ARGS     JVM options of both services, default -Xmx1g
+              --profiles=NAMES            Spring profiles of both services, e.g. virtual-threads
+              --work-dir=PATH             data and service logs, default target/loadtest
+
+            Workload (open model: requests are started at the given rate however slow the responses are)
+              --rate=N                    requests per second, default 500
+              --warm-up=DURATION          run before measuring, default 15s
+              --duration=DURATION         measured run, default 60s
+              --mix=OP:WEIGHT,...         by-id, page, create, update; default by-id:70,page:10,create:10,update:10
+              --seed=N                    employees created before the run, default 2000
+              --max-in-flight=N           requests beyond this are counted as not sent, default 5000
+
+            Write visibility (time from the write being accepted until a read returns it)
+              --visibility-sample=F       fraction of writes followed up, default 0.1
+              --visibility-poll-interval=DURATION   default 20ms
+              --visibility-timeout=DURATION         default 10s
+
+            Results
+              --result=PATH               JSON report, default target/loadtest-result.json
+              --baseline=PATH             earlier JSON report to compare with; exit code 2 on a regression
+              --tolerance=F               allowed p99 increase / throughput decrease against the baseline, default 0.2
+
+            Durations are written as 500ms, 15s or 2m.
+            """;
+
+    private static final Set<String> NAMES = Set.of("target", "domain-jar", "gateway-jar", "service-jvm-args", "profiles",
+            "work-dir", "rate", "warm-up", "duration", "mix", "seed", "max-in-flight", "visibility-sample",
+            "visibility-poll-interval", "visibility-timeout", "result", "baseline", "tolerance");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name);
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+
+        String target = values.getOrDefault("target", "");
+        String baseline = values.getOrDefault("baseline", "");
+        LoadTestOptions options = new LoadTestOptions(
+                target.isBlank() ? null : URI.create(target.endsWith("/") ? target.substring(0, target.length() - 1) : target),
+                Path.of(values.getOrDefault("domain-jar", "../domain/target/domain-0.0.1-SNAPSHOT.jar")),
+                Path.of(values.getOrDefault("gateway-jar", "../gateway/target/gateway-0.0.1-SNAPSHOT.jar")),
+                values.getOrDefault("service-jvm-args", "-Xmx1g"),
+                values.getOrDefault("profiles", ""),
+                Path.of(values.getOrDefault("work-dir", "target/loadtest")),
+                Integer.parseInt(values.getOrDefault("rate", "500")),
+                duration(values.getOrDefault("warm-up", "15s")),
+                duration(values.getOrDefault("duration", "60s")),
+                mix(values.getOrDefault("mix", "by-id:70,page:10,create:10,update:10")),
+                Integer.parseInt(values.getOrDefault("seed", "2000")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                Double.parseDouble(values.getOrDefault("visibility-sample", "0.1")),
+                duration(values.getOrDefault("visibility-poll-interval", "20ms")),
+                duration(values.getOrDefault("visibility-timeout", "10s")),
+                Path.of(values.getOrDefault("result", "target/loadtest-result.json")),
+                baseline.isBlank() ? null : Path.of(baseline),
+                Double.parseDouble(values.getOrDefault("tolerance", "0.2")));
+        options.validate();
+        return options;
+    }
+
+    /**
+     * The settings that decide whether two reports can be compared.
+     */
+    Map<String, Object> describe() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("target", target != null ? target.toString() : "embedded");
+        settings.put("profiles", profiles);
+        settings.put("rate", rate);
+        settings.put("warmUpSeconds", warmUp.toMillis() / 1000.0);
+        settings.put("durationSeconds", duration.toMillis() / 1000.0);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.label(), weight));
+        settings.put("mix", weights);
+        settings.put("seed", seed);
+        return settings;
+    }
+
+    private void validate() {
+        if (rate <= 0 || seed <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("rate, seed and max-in-flight must be positive");
+        }
+        if (duration.isZero() || duration.isNegative() || warmUp.isNegative()) {
+            throw new IllegalArgumentException("duration must be positive and warm-up must not be negative");
+        }
+        if (visibilitySample < 0 || visibilitySample > 1) {
+            throw new IllegalArgumentException("visibility-sample must be between 0 and 1");
+        }
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected OP:WEIGHT in --mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights in --mix must not be negative: " + entry);
+            }
+            mix.put(Operation.of(parts[0].trim()), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix must contain a positive weight");
+        }
+        return mix;
+    }
+
+    static Duration duration(String value) {
+        String trimmed = value.trim();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        throw new IllegalArgumentException("Expected a duration such as 500ms, 15s or 2m, got " + value);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Outcome of one run, printed as a table and written as JSON so that a later run can be compared
+ * with it ({@code --baseline}). Latencies are in milliseconds and are measured from the moment a
+ * request was due, not from when it was actually sent, so a stalled server shows up as latency
+ * instead of as fewer requests.
+ */
+record LoadTestReport(String startedAt,
+                      Map<String, Object> settings,
+                      double measuredSeconds,
+                      long notSent,
+                      List<OperationResult> operations,
+                      List<VisibilityResult> visibility) {
+
+    /**
+     * @param rejected answered 503 by the gateway's concurrency limiter
+     * @param failed   any other error status, timeout or connection failure
+     */
+    record OperationResult(String operation, long requests, double throughput, long ok, long rejected, long failed,
+                           double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static OperationResult of(Operation operation, Histogram latencies, long ok, long rejected, long failed, double seconds) {
+            long requests = ok + rejected + failed;
+            return new OperationResult(operation.label(), requests, requests / seconds, ok, rejected, failed,
+                    millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9), latencies.getMaxValue() / 1000.0);
+        }
+
+        double errorRatio() {
+            return requests == 0 ? 0 : (double) (rejected + failed) / requests;
+        }
+    }
+
+    /**
+     * Time from a write being accepted (200 from the gateway) until a read through the gateway
+     * returned it; {@code timedOut} writes never became visible within {@code --visibility-timeout}.
+     */
+    record VisibilityResult(String operation, long samples, long timedOut,
+                            double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static VisibilityResult of(Operation operation, Histogram lags, long timedOut) {
+            return new VisibilityResult(operation.label(), lags.getTotalCount(), timedOut,
+                    millis(lags, 50), millis(lags, 99), millis(lags, 99.9), lags.getMaxValue() / 1000.0);
+        }
+    }
+
+    void print(PrintStream out) {
+        out.printf("%nMeasured %.1f s at %s req/s offered%n%n", measuredSeconds, settings.get("rate"));
+        out.printf("%-8s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "request", "count", "req/s", "rejected", "failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        double total = 0;
+        for (OperationResult result : operations) {
+            out.printf("%-8s %9d %9.1f %9d %9d %9.2f %9.2f %9.2f %9.2f%n", result.operation(), result.requests(),
+                    result.throughput(), result.rejected(), result.failed(), result.p50Ms(), result.p99Ms(),
+                    result.p999Ms(), result.maxMs());
+            total += result.throughput();
+        }
+        out.printf("%-8s %9s %9.1f%n", "total", "", total);
+        if (notSent > 0) {
+            out.printf("%d requests were not sent because --max-in-flight requests were already pending%n", notSent);
+        }
+
+        if (!visibility.isEmpty()) {
+            out.printf("%nWrite visibility%n");
+            out.printf("%-8s %9s %9s %9s %9s %9s %9s%n", "write", "samples", "timed out", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (VisibilityResult result : visibility) {
+                out.printf("%-8s %9d %9d %9.2f %9.2f %9.2f %9.2f%n", result.operation(), result.samples(), result.timedOut(),
+                        result.p50Ms(), result.p99Ms(), result.p999Ms(), result.maxMs());
+            }
+        }
+    }
+
+    void write(Path path, ObjectMapper objectMapper) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), this);
+    }
+
+    static LoadTestReport read(Path path, ObjectMapper objectMapper) throws IOException {
+        return objectMapper.readValue(path.toFile(), LoadTestReport.class);
+    }
+
+    /**
+     * Compares p99 latencies, throughput and error ratios per request type with an earlier run.
+     *
+     * @param tolerance relative change that is still accepted, e.g. 0.2 for 20%
+     * @return one line per regression, empty if there is none
+     */
+    List<String> regressionsAgainst(LoadTestReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (OperationResult current : operations) {
+            OperationResult before = baseline.operations().stream()
+                    .filter(result -> result.operation().equals(current.operation()))
+                    .findFirst()
+                    .orElse(null);
+            if (before == null) {
+                continue;
+            }
+            if (current.p99Ms() > before.p99Ms() * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.2f ms -> %.2f ms", current.operation(), before.p99Ms(), current.p99Ms()));
+            }
+            if (current.throughput() < before.throughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput %.1f -> %.1f req/s", current.operation(), before.throughput(), current.throughput()));
+            }
+            // Absolute: a ratio growing from 0.01% to 0.02% is not worth failing a build over
+            if (current.errorRatio() > before.errorRatio() + 0.01) {
+                regressions.add(String.format("%s errors %.2f%% -> %.2f%%", current.operation(),
+                        before.errorRatio() * 100, current.errorRatio() * 100));
+            }
+        }
+        for (VisibilityResult current : visibility) {
+            baseline.visibility().stream()
+                    .filter(result -> result.operation().equals(current.operation()))
+                    .findFirst()
+                    .filter(before -> current.p99Ms() > before.p99Ms() * (1 + tolerance))
+                    .ifPresent(before -> regressions.add(String.format("%s visibility p99 %.2f ms -> %.2f ms",
+                            current.operation(), before.p99Ms(), current.p99Ms())));
+        }
+        return regressions;
+    }
+
+    /**
+     * Reports are only comparable when they ran the same workload.
+     */
+    boolean comparableWith(LoadTestReport other) {
+        return Objects.equals(settings, other.settings());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Entry point of loadtest.jar. Starts the stand-ins and both services (or uses {@code --target}),
+ * seeds employees, runs the workload and reports throughput, latency percentiles and write
+ * visibility. Exits with 2 if {@code --baseline} is given and the run regressed against it, so the
+ * jar can gate a deployment.
+ */
+public final class LoadTestRunner {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration SEED_TIMEOUT = Duration.ofMinutes(2);
+    private static final double SEED_SALARY = 1000;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help") || List.of(args).contains("-h")) {
+            System.out.print(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        LoadTestReport report;
+        if (options.target() != null) {
+            report = run(new EmployeeClient(http, options.target(), objectMapper), options);
+        } else {
+            report = runEmbedded(http, objectMapper, options);
+        }
+
+        report.print(System.out);
+        report.write(options.result(), objectMapper);
+        System.out.printf("%nReport written to %s%n", options.result().toAbsolutePath());
+
+        if (options.baseline() != null) {
+            LoadTestReport baseline = LoadTestReport.read(options.baseline(), objectMapper);
+            if (!report.comparableWith(baseline)) {
+                System.out.printf("Warning: the baseline ran with different settings: %s%n", baseline.settings());
+            }
+            List<String> regressions = report.regressionsAgainst(baseline, options.tolerance());
+            if (!regressions.isEmpty()) {
+                System.out.printf("%nRegressions against %s (tolerance %.0f%%):%n", options.baseline(), options.tolerance() * 100);
+                regressions.forEach(regression -> System.out.println("  " + regression));
+                System.exit(2);
+            }
+            System.out.printf("No regression against %s%n", options.baseline());
+        }
+    }
+
+    private static LoadTestReport runEmbedded(HttpClient http, ObjectMapper objectMapper, LoadTestOptions options) throws Exception {
+        Path workDir = options.workDir();
+        System.out.println("Starting Postgres, RabbitMQ and Redis stand-ins");
+        try (StandIns standIns = StandIns.start(workDir)) {
+            int domainPort = StandIns.freePort();
+            int grpcPort = StandIns.freePort();
+            int gatewayPort = StandIns.freePort();
+
+            List<String> domainArgs = new ArrayList<>(List.of(
+                    "--server.port=" + domainPort,
+                    "--grpc.server.port=" + grpcPort,
+                    "--spring.datasource.url=" + standIns.jdbcUrl(),
+                    "--spring.datasource.username=postgres",
+                    "--spring.datasource.password=postgres",
+                    "--spring.rabbitmq.host=localhost",
+                    "--spring.rabbitmq.port=" + standIns.amqpPort()));
+            List<String> gatewayArgs = new ArrayList<>(List.of(
+                    "--server.port=" + gatewayPort,
+                    "--grpc.client.employeeService.address=static://localhost:" + grpcPort,
+                    "--spring.rabbitmq.host=localhost",
+                    "--spring.rabbitmq.port=" + standIns.amqpPort(),
+                    "--spring.data.redis.host=localhost",
+                    "--spring.data.redis.port=" + standIns.redisPort(),
+                    // Request logging at DEBUG would dominate the gateway's own latency
+                    "--logging.level.com.example.gateway=INFO"));
+            if (!options.profiles().isBlank()) {
+                domainArgs.add("--spring.profiles.active=" + options.profiles());
+                gatewayArgs.add("--spring.profiles.active=" + options.profiles());
+            }
+
+            System.out.println("Starting domain, log in " + workDir.resolve("domain.log"));
+            try (ServiceProcess domain = ServiceProcess.start("domain", options.domainJar(), options.serviceJvmArgs(), domainArgs, workDir)) {
+                domain.awaitHealthy(http, URI.create("http://localhost:" + domainPort + "/actuator/health"), STARTUP_TIMEOUT);
+                System.out.println("Starting gateway, log in " + workDir.resolve("gateway.log"));
+                try (ServiceProcess gateway = ServiceProcess.start("gateway", options.gatewayJar(), options.serviceJvmArgs(), gatewayArgs, workDir)) {
+                    URI gatewayUri = URI.create("http://localhost:" + gatewayPort);
+                    gateway.awaitHealthy(http, gatewayUri.resolve("/actuator/health"), STARTUP_TIMEOUT);
+                    return run(new EmployeeClient(http, gatewayUri, objectMapper), options);
+                }
+            }
+        }
+    }
+
+    private static LoadTestReport run(EmployeeClient client, LoadTestOptions options) throws Exception {
+        List<String> ids = seed(client, options.seed());
+        System.out.printf("Running %d req/s for %d s of warm-up and %d s measured%n",
+                options.rate(), options.warmUp().toSeconds(), options.duration().toSeconds());
+        return new Workload(client, options, ids).run();
+    }
+
+    /**
+     * Creates the employees the reads and updates work on and waits until all of them are visible.
+     */
+    private static List<String> seed(EmployeeClient client, int count) throws Exception {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        long start = System.nanoTime();
+        System.out.printf("Seeding %d employees%n", count);
+        client.bulkCreate(ids, SEED_SALARY);
+
+        long deadline = start + SEED_TIMEOUT.toNanos();
+        List<String> pending = ids;
+        while (!pending.isEmpty()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(pending.size() + " of " + count + " seeded employees are still not visible after " + SEED_TIMEOUT);
+            }
+            Thread.sleep(500);
+            Set<String> missing = client.missing(pending);
+            pending = pending.stream().filter(missing::contains).toList();
+        }
+        System.out.printf("Seeded in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        return ids;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.loadtest;
+
+/**
+ * The requests the workload is mixed from, named as in {@code --mix}.
+ */
+enum Operation {
+
+    /**
+     * {@code GET /api/v1/employees/{id}} for a random known employee, mostly served from the cache.
+     */
+    BY_ID("by-id", false),
+    /**
+     * {@code GET /api/v1/employees?limit=50}, a keyset page that always reaches Postgres.
+     */
+    PAGE("page", false),
+    /**
+     * {@code POST /api/v1/employees} of a new employee with a client-chosen id.
+     */
+    CREATE("create", true),
+    /**
+     * {@code PUT /api/v1/employees/{id}} of a known employee with a new salary.
+     */
+    UPDATE("update", true);
+
+    private final String label;
+    private final boolean write;
+
+    Operation(String label, boolean write) {
+        this.label = label;
+        this.write = write;
+    }
+
+    String label() {
+        return label;
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+
+    static Operation of(String label) {
+        for (Operation operation : values()) {
+            if (operation.label.equals(label)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + label + ", expected by-id, page, create or update");
+    }
+}
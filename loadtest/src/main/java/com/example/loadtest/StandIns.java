@@ -0,0 +1,104 @@
+package com.example.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.qpid.server.SystemLauncher;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Postgres, RabbitMQ and Redis for the services, started on free local ports without Docker or a
+ * network connection:
+ * <ul>
+ *     <li>Postgres runs from the binaries packaged with embedded-postgres, so SQL, advisory locks
+ *     and JDBC batching behave as in production;</li>
+ *     <li>RabbitMQ is replaced by Apache Qpid Broker-J inside this JVM, which speaks AMQP 0-9-1 and
+ *     supports publisher confirms; messages are kept in memory;</li>
+ *     <li>Redis is the redis-server binary packaged with embedded-redis.</li>
+ * </ul>
+ * Everything lives under the work directory and is gone once the harness stops.
+ */
+final class StandIns implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final SystemLauncher broker;
+    private final RedisServer redis;
+    private final int amqpPort;
+    private final int redisPort;
+
+    private StandIns(EmbeddedPostgres postgres, SystemLauncher broker, int amqpPort, RedisServer redis, int redisPort) {
+        this.postgres = postgres;
+        this.broker = broker;
+        this.amqpPort = amqpPort;
+        this.redis = redis;
+        this.redisPort = redisPort;
+    }
+
+    static StandIns start(Path workDir) throws Exception {
+        Files.createDirectories(workDir);
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setOverrideWorkingDirectory(workDir.resolve("postgres").toFile())
+                .setCleanDataDirectory(true)
+                .start();
+
+        int amqpPort = freePort();
+        SystemLauncher broker = new SystemLauncher();
+        broker.startup(Map.of(
+                "type", "Memory",
+                "initialConfigurationLocation", StandIns.class.getResource("/qpid-broker.json").toExternalForm(),
+                "startupLoggedToSystemOut", false,
+                "context", Map.of(
+                        "qpid.amqp_port", String.valueOf(amqpPort),
+                        "qpid.work_dir", workDir.resolve("qpid").toString())));
+
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redis.start();
+
+        return new StandIns(postgres, broker, amqpPort, redis, redisPort);
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    int amqpPort() {
+        return amqpPort;
+    }
+
+    int redisPort() {
+        return redisPort;
+    }
+
+    static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            redis.stop();
+        } finally {
+            try {
+                broker.shutdown();
+            } finally {
+                postgres.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends the request mix at a fixed rate (an open model) from virtual threads. A request that is
+ * due is started whether or not earlier ones have been answered, and its latency counts from when
+ * it was due, so that queueing in the services is not hidden by the generator slowing down.
+ * <p>
+ * A sample of the accepted writes is followed by reads of the same employee until the change is
+ * visible through the gateway, which covers the broker, the listener batch, the commit and the
+ * cache invalidation by the change event. Updates write salaries that only ever grow, so a later
+ * update of the same employee also counts as seeing the earlier one.
+ */
+final class Workload {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final int PAGE_SIZE = 50;
+
+    private final EmployeeClient client;
+    private final LoadTestOptions options;
+    // Employees known to exist; grows with the creates whose visibility was checked
+    private final List<String> knownIds;
+    private final Operation[] weighted;
+    private final AtomicLong salaries = new AtomicLong(1_000_000);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder notSent = new LongAdder();
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final Map<Operation, Visibility> visibility = new EnumMap<>(Operation.class);
+
+    Workload(EmployeeClient client, LoadTestOptions options, List<String> seededIds) {
+        this.client = client;
+        this.options = options;
+        this.knownIds = Collections.synchronizedList(new ArrayList<>(seededIds));
+        List<Operation> weighted = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+            stats.put(operation, new Stats());
+            if (operation.isWrite()) {
+                visibility.put(operation, new Visibility());
+            }
+        });
+        this.weighted = weighted.toArray(Operation[]::new);
+    }
+
+    LoadTestReport run() {
+        String startedAt = Instant.now().toString();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmUp().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long due = start; due < end; due += intervalNanos) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = due >= measureFrom;
+                if (inFlight.get() >= options.maxInFlight()) {
+                    if (measured) {
+                        notSent.increment();
+                    }
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                long scheduled = due;
+                executor.execute(() -> execute(operation, scheduled, measured));
+            }
+            // Closing waits for the outstanding requests and visibility checks
+        }
+
+        double seconds = options.duration().toNanos() / 1e9;
+        List<LoadTestReport.OperationResult> operations = new ArrayList<>();
+        stats.forEach((operation, stat) -> operations.add(LoadTestReport.OperationResult.of(operation, stat.latencies,
+                stat.ok.sum(), stat.rejected.sum(), stat.failed.sum(), seconds)));
+        List<LoadTestReport.VisibilityResult> visibilities = new ArrayList<>();
+        visibility.forEach((operation, lag) -> visibilities.add(LoadTestReport.VisibilityResult.of(operation, lag.lags, lag.timedOut.sum())));
+        return new LoadTestReport(startedAt, options.describe(), seconds, notSent.sum(), operations, visibilities);
+    }
+
+    private void execute(Operation operation, long due, boolean measured) {
+        String id = null;
+        double salary = 0;
+        int status;
+        try {
+            switch (operation) {
+                case BY_ID -> status = client.getById(randomKnownId());
+                case PAGE -> status = client.getPage(PAGE_SIZE);
+                case CREATE -> {
+                    id = UUID.randomUUID().toString();
+                    salary = salaries.incrementAndGet();
+                    status = client.create(id, salary);
+                }
+                case UPDATE -> {
+                    id = randomKnownId();
+                    salary = salaries.incrementAndGet();
+                    status = client.update(id, salary);
+                }
+                default -> throw new IllegalStateException("Unexpected operation " + operation);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+        } catch (Exception e) {
+            // Timeouts and connection failures
+            status = -1;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        long acknowledged = System.nanoTime();
+        if (measured) {
+            stats.get(operation).record(status, acknowledged - due);
+        }
+
+        if (status == 200 && operation.isWrite() && ThreadLocalRandom.current().nextDouble() < options.visibilitySample()) {
+            awaitVisible(operation, id, salary, acknowledged, measured);
+        }
+    }
+
+    private void awaitVisible(Operation operation, String id, double salary, long acknowledged, boolean measured) {
+        long deadline = acknowledged + options.visibilityTimeout().toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                OptionalDouble current = client.salaryOf(id);
+                if (current.isPresent() && current.getAsDouble() >= salary) {
+                    if (measured) {
+                        visibility.get(operation).lags.recordValue(micros(System.nanoTime() - acknowledged));
+                    }
+                    if (operation == Operation.CREATE) {
+                        knownIds.add(id);
+                    }
+                    return;
+                }
+                Thread.sleep(options.visibilityPollInterval());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            // Counted as not visible
+        }
+        if (measured) {
+            visibility.get(operation).timedOut.increment();
+        }
+    }
+
+    private String randomKnownId() {
+        synchronized (knownIds) {
+            return knownIds.get(ThreadLocalRandom.current().nextInt(knownIds.size()));
+        }
+    }
+
+    private static long micros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    private static final class Stats {
+
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        void record(int status, long latencyNanos) {
+            latencies.recordValue(micros(latencyNanos));
+            if (status / 100 == 2) {
+                ok.increment();
+            } else if (status == 503) {
+                rejected.increment();
+            } else {
+                failed.increment();
+            }
+        }
+    }
+
+    private static final class Visibility {
+
+        final Histogram lags = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder timedOut = new LongAdder();
+    }
+}